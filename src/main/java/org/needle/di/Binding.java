@@ -0,0 +1,185 @@
+package org.needle.di;
+
+/**
+ * The resolved binding of a type in a container : either an implementation
+ *   class, with its plan, or a provider method, in a given scope, possibly
+ *   qualified by a name or a qualifier annotation.
+ * The binding also holds the singleton instance once it is built.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class Binding {
+
+	/**
+	 * The bound type
+	 */
+	private final Class<?> type;
+
+	/**
+	 * The binding qualifier : its name, its qualifier annotation type or instance,
+	 *   or null for an unqualified binding
+	 */
+	private final Object qualifier;
+
+	/**
+	 * The id of the binding key
+	 */
+	private final int key;
+
+	/**
+	 * The plan of the implementation, or null if a provider is bound
+	 */
+	private final ServicePlan<?> plan;
+
+	/**
+	 * The provider, or null if an implementation is bound
+	 */
+	private final Provider provider;
+
+	/**
+	 * The scope of the binding
+	 */
+	private final Scope scope;
+
+	/**
+	 * The singleton instance, once built
+	 */
+	private volatile Object instance;
+
+	/**
+	 * The idle instances, for a pooled binding, else null
+	 */
+	private final InstancePool pool;
+
+	/**
+	 * Create the binding of a type to an implementation class.
+	 * @param type The bound type
+	 * @param qualifier The binding qualifier, or null
+	 * @param implementation The implementation class
+	 * @param scope The binding scope
+	 * @param capacity The capacity of the pool, for a pooled binding
+	 */
+	Binding(Class<?> type, Object qualifier, Class<?> implementation, Scope scope, int capacity) {
+		this.type = type;
+		this.qualifier = qualifier;
+		this.key = BindingKey.of(type, qualifier);
+		this.plan = ServicePlan.of(implementation);
+		this.provider = null;
+		this.scope = scope;
+		this.pool = scope == Scope.POOLED ? new InstancePool(capacity) : null;
+	}
+
+	/**
+	 * Create the binding of a type to a provider method, qualified by the
+	 *   qualifier annotating the method, if any.
+	 * @param provider The provider
+	 * @param scope The binding scope
+	 */
+	Binding(Provider provider, Scope scope) {
+		this.type = provider.getType();
+		this.qualifier = BindingKey.qualifier(provider.getMethod().getAnnotations());
+		this.key = BindingKey.of(type, qualifier);
+		this.plan = null;
+		this.provider = provider;
+		this.scope = scope;
+		this.pool = null;
+	}
+
+	/**
+	 * Returns the bound type.
+	 * @return The bound type
+	 */
+	Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the binding name.
+	 * @return The binding name, or null for a binding unqualified or qualified
+	 *   by an annotation
+	 */
+	String getName() {
+		return qualifier instanceof String ? (String) qualifier : null;
+	}
+
+	/**
+	 * Returns the binding qualifier.
+	 * @return The name, the qualifier annotation type or instance, or null
+	 */
+	Object getQualifier() {
+		return qualifier;
+	}
+
+	/**
+	 * Returns the id of the binding key, its type and qualifier.
+	 * @return The key id
+	 */
+	int getKey() {
+		return key;
+	}
+
+	/**
+	 * Returns the plan of the implementation class.
+	 * @return The plan, or null if a provider is bound
+	 */
+	ServicePlan<?> getPlan() {
+		return plan;
+	}
+
+	/**
+	 * Returns the provider method.
+	 * @return The provider, or null if an implementation is bound
+	 */
+	Provider getProvider() {
+		return provider;
+	}
+
+	/**
+	 * Returns the class whose construction is in progress when the
+	 *   binding is instantiated, for cycle detection.
+	 * @return The implementation class, or the provided type
+	 */
+	Class<?> getImplementation() {
+		return plan != null ? plan.getType() : type;
+	}
+
+	/**
+	 * Returns the scope of the binding.
+	 * @return The binding scope
+	 */
+	Scope getScope() {
+		return scope;
+	}
+
+	/**
+	 * Returns the singleton instance.
+	 * @return The instance, or null if not built yet
+	 */
+	Object getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Set the singleton instance, once built.
+	 * @param instance The singleton instance
+	 */
+	void setInstance(Object instance) {
+		this.instance = instance;
+	}
+
+	/**
+	 * Returns the pool of the binding.
+	 * @return The pool, or null if the binding is not pooled
+	 */
+	InstancePool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Describe the binding target, for error messages.
+	 * @return The implementation class name or the provider method description
+	 */
+	String describe() {
+		return plan != null ? plan.getType().getName() :
+				ReflectionUtils.describeMethod(provider.getMethod());
+	}
+}
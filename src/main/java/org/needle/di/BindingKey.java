@@ -0,0 +1,99 @@
+package org.needle.di;
+
+import org.needle.di.annotations.Named;
+import org.needle.di.annotations.Qualifier;
+
+import java.lang.annotation.Annotation;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The key of a binding : a type and a qualifier, interned into a small integer id.
+ * Keys are interned once, when the plan of an injection point or a binding is
+ *   computed, so that finding the binding of an injection point is an array
+ *   index in the container, and never hashes nor compares annotation instances,
+ *   whose hashCode and equals are reflective.
+ * The ids of the keys of a type are held by the type itself, through a
+ *   ClassValue, as the plans are : a type and its keys are unloaded together.
+ * A qualifier is the name of a @Named annotation, the type of a qualifier
+ *   annotation without members, or the qualifier annotation itself.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class BindingKey {
+
+	/**
+	 * The ids of the interned keys of each type, by qualifier
+	 */
+	private static final ClassValue<Map<Object, Integer>> IDS = new ClassValue<Map<Object, Integer>>() {
+		@Override
+		protected Map<Object, Integer> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	/**
+	 * The qualifier of the unqualified keys, which a ConcurrentHashMap cannot hold
+	 */
+	private static final Object UNQUALIFIED = new Object();
+
+	/**
+	 * The next id
+	 */
+	private static final AtomicInteger NEXT = new AtomicInteger();
+
+	private BindingKey() {
+	}
+
+	/**
+	 * Returns the id of a key, interning it on first call.
+	 * @param type The bound type
+	 * @param qualifier The qualifier, or null for an unqualified binding
+	 * @return The key id
+	 */
+	static int of(Class<?> type, Object qualifier) {
+		final Map<Object, Integer> ids = IDS.get(type);
+		final Object key = qualifier != null ? qualifier : UNQUALIFIED;
+		final Integer id = ids.get(key);
+		return id != null ? id : ids.computeIfAbsent(key, k -> NEXT.getAndIncrement());
+	}
+
+	/**
+	 * Returns the id of a key, if it has been interned.
+	 * @param type The bound type
+	 * @param qualifier The qualifier, or null for an unqualified binding
+	 * @return The key id, or -1 if no plan nor binding has this key
+	 */
+	static int find(Class<?> type, Object qualifier) {
+		final Integer id = IDS.get(type).get(qualifier != null ? qualifier : UNQUALIFIED);
+		return id != null ? id : -1;
+	}
+
+	/**
+	 * Returns the qualifier among the annotations of an injection point or a
+	 *   provider method.
+	 * @param annotations The annotations
+	 * @return The qualifier, or null if none of the annotations is a qualifier
+	 */
+	static Object qualifier(Annotation[] annotations) {
+		for (Annotation annotation : annotations) {
+			if (annotation instanceof Named) {
+				return ((Named) annotation).value();
+			}
+			final Class<? extends Annotation> type = annotation.annotationType();
+			if (type.isAnnotationPresent(Qualifier.class)) {
+				return type.getDeclaredMethods().length == 0 ? type : annotation;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Describe a qualifier, for error messages.
+	 * @param qualifier The qualifier
+	 * @return The name, or the qualifier annotation
+	 */
+	static String describe(Object qualifier) {
+		return qualifier instanceof Class ? "@" + ((Class<?>) qualifier).getName() : String.valueOf(qualifier);
+	}
+}
@@ -0,0 +1,472 @@
+package org.needle.di;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal writer of class files, for the classes the container generates at
+ *   runtime. It only supports what these classes need : fields, and methods
+ *   whose code has no branch, so that no stack map frame has to be computed.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class ClassWriter {
+
+	static final int ACC_PUBLIC = 0x0001;
+	static final int ACC_PRIVATE = 0x0002;
+	static final int ACC_FINAL = 0x0010;
+	static final int ACC_SUPER = 0x0020;
+
+	static final int ALOAD_0 = 0x2a;
+	static final int ALOAD_1 = 0x2b;
+	static final int ALOAD_2 = 0x2c;
+	static final int AALOAD = 0x32;
+	static final int POP = 0x57;
+	static final int POP2 = 0x58;
+	static final int DUP = 0x59;
+	static final int ARETURN = 0xb0;
+	static final int RETURN = 0xb1;
+
+	/**
+	 * The class file version, Java 8 : stack map frames are only required at
+	 *   branch targets, which the written code never has.
+	 */
+	private static final int VERSION = 52;
+
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_FIELDREF = 9;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_INTERFACE_METHODREF = 11;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+	/**
+	 * The constant pool entries, as written in the class file
+	 */
+	private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+
+	/**
+	 * The index of each constant pool entry, by tag and content
+	 */
+	private final Map<String, Integer> constants = new HashMap<>();
+
+	/**
+	 * The next constant pool index
+	 */
+	private int poolSize = 1;
+
+	private final int access;
+	private final int thisClass;
+	private final int superClass;
+	private final int[] interfaces;
+
+	/**
+	 * The written fields
+	 */
+	private final ByteArrayOutputStream fields = new ByteArrayOutputStream();
+	private int fieldCount;
+
+	/**
+	 * The methods being written, in declaration order
+	 */
+	private final List<Code> methods = new ArrayList<>();
+
+	/**
+	 * Start writing a class.
+	 * @param access The access flags of the class
+	 * @param name The internal name of the class
+	 * @param superName The internal name of the superclass
+	 * @param interfaces The internal names of the implemented interfaces
+	 */
+	ClassWriter(int access, String name, String superName, String... interfaces) {
+		this.access = access | ACC_SUPER;
+		this.thisClass = classConstant(name);
+		this.superClass = classConstant(superName);
+		this.interfaces = new int[interfaces.length];
+		for (int i = 0; i < interfaces.length; i++) {
+			this.interfaces[i] = classConstant(interfaces[i]);
+		}
+	}
+
+	/**
+	 * The class loader of the classes defined by define()
+	 */
+	private static final class Loader extends ClassLoader {
+
+		private Loader(ClassLoader parent) {
+			super(parent);
+		}
+
+		private Class<?> define(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+	/**
+	 * Define a written class in its own class loader, child of a given one. The
+	 *   class is in another runtime package than the classes of the parent loader,
+	 *   so it can only access their public members.
+	 * @param parent The parent class loader, which loads the classes the class refers to
+	 * @param name The binary name of the class
+	 * @param bytes The class file
+	 * @return The defined class
+	 */
+	static Class<?> define(ClassLoader parent, String name, byte[] bytes) {
+		return new Loader(parent).define(name, bytes);
+	}
+
+	/**
+	 * Returns the internal name of a class, as in "java/lang/Object".
+	 * @param type The class
+	 * @return The internal name
+	 */
+	static String internalName(Class<?> type) {
+		return type.getName().replace('.', '/');
+	}
+
+	/**
+	 * Returns the descriptor of a type, as in "I" or "Ljava/lang/Object;".
+	 * @param type The type
+	 * @return The type descriptor
+	 */
+	static String descriptor(Class<?> type) {
+		if (type.isArray()) {
+			return internalName(type);
+		}
+		if (!type.isPrimitive()) {
+			return "L" + internalName(type) + ";";
+		}
+		if (type == void.class) return "V";
+		if (type == boolean.class) return "Z";
+		if (type == byte.class) return "B";
+		if (type == char.class) return "C";
+		if (type == short.class) return "S";
+		if (type == int.class) return "I";
+		if (type == long.class) return "J";
+		if (type == float.class) return "F";
+		return "D";
+	}
+
+	/**
+	 * Returns the descriptor of a method, as in "(ILjava/lang/String;)V".
+	 * @param returnType The return type
+	 * @param parameterTypes The parameter types
+	 * @return The method descriptor
+	 */
+	static String descriptor(Class<?> returnType, Class<?>... parameterTypes) {
+		final StringBuilder descriptor = new StringBuilder("(");
+		for (Class<?> parameterType : parameterTypes) {
+			descriptor.append(descriptor(parameterType));
+		}
+		return descriptor.append(')').append(descriptor(returnType)).toString();
+	}
+
+	/**
+	 * Returns the number of local variable or stack slots taken by a value of a type.
+	 * @param type The type
+	 * @return 2 for long and double, 0 for void, else 1
+	 */
+	static int size(Class<?> type) {
+		return type == long.class || type == double.class ? 2 : type == void.class ? 0 : 1;
+	}
+
+	/**
+	 * Add a field to the class.
+	 * @param access The access flags of the field
+	 * @param name The field name
+	 * @param descriptor The field type descriptor
+	 */
+	void field(int access, String name, String descriptor) {
+		final DataOutputStream out = new DataOutputStream(fields);
+		try {
+			out.writeShort(access);
+			out.writeShort(utf8(name));
+			out.writeShort(utf8(descriptor));
+			out.writeShort(0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		fieldCount++;
+	}
+
+	/**
+	 * Add a method to the class.
+	 * @param access The access flags of the method
+	 * @param name The method name
+	 * @param descriptor The method descriptor
+	 * @return The writer of the method code
+	 */
+	Code method(int access, String name, String descriptor) {
+		final Code code = new Code(access, utf8(name), utf8(descriptor));
+		methods.add(code);
+		return code;
+	}
+
+	/**
+	 * Returns the class file.
+	 * @return The bytes of the class file
+	 */
+	byte[] toByteArray() {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			// Added before the pool is written, the methods refer to it
+			final int codeAttribute = utf8("Code");
+
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(VERSION);
+			out.writeShort(poolSize);
+			pool.writeTo(out);
+
+			out.writeShort(access);
+			out.writeShort(thisClass);
+			out.writeShort(superClass);
+			out.writeShort(interfaces.length);
+			for (int i : interfaces) {
+				out.writeShort(i);
+			}
+
+			out.writeShort(fieldCount);
+			fields.writeTo(out);
+
+			out.writeShort(methods.size());
+			for (Code method : methods) {
+				method.writeTo(out, codeAttribute);
+			}
+			out.writeShort(0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Returns the index of a constant pool entry, adding it if it is not already there.
+	 * @param key The tag and content of the entry
+	 * @param entry The bytes of the entry
+	 * @return The entry index
+	 */
+	private int constant(String key, byte[] entry) {
+		Integer index = constants.get(key);
+		if (index == null) {
+			index = poolSize++;
+			constants.put(key, index);
+			pool.write(entry, 0, entry.length);
+		}
+		return index;
+	}
+
+	private int utf8(String value) {
+		final ByteArrayOutputStream entry = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(entry);
+		try {
+			out.writeByte(CONSTANT_UTF8);
+			// Modified UTF-8 prefixed by its length, as the class file format expects
+			out.writeUTF(value);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return constant(CONSTANT_UTF8 + ":" + value, entry.toByteArray());
+	}
+
+	private int classConstant(String name) {
+		return constant(CONSTANT_CLASS + ":" + name, entry(CONSTANT_CLASS, utf8(name)));
+	}
+
+	private int nameAndType(String name, String descriptor) {
+		return constant(CONSTANT_NAME_AND_TYPE + ":" + name + ":" + descriptor,
+				entry(CONSTANT_NAME_AND_TYPE, utf8(name), utf8(descriptor)));
+	}
+
+	private int member(int tag, String owner, String name, String descriptor) {
+		return constant(tag + ":" + owner + "." + name + ":" + descriptor,
+				entry(tag, classConstant(owner), nameAndType(name, descriptor)));
+	}
+
+	private static byte[] entry(int tag, int... indexes) {
+		final byte[] entry = new byte[1 + indexes.length * 2];
+		entry[0] = (byte) tag;
+		for (int i = 0; i < indexes.length; i++) {
+			entry[1 + i * 2] = (byte) (indexes[i] >> 8);
+			entry[2 + i * 2] = (byte) indexes[i];
+		}
+		return entry;
+	}
+
+	/**
+	 * The writer of the code of a method, instruction by instruction.
+	 * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+	 */
+	final class Code {
+
+		private final int access;
+		private final int name;
+		private final int descriptor;
+
+		private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+		private int maxStack;
+		private int maxLocals;
+
+		private Code(int access, int name, int descriptor) {
+			this.access = access;
+			this.name = name;
+			this.descriptor = descriptor;
+		}
+
+		/**
+		 * Write an instruction without operand.
+		 * @param opcode The instruction opcode
+		 * @return The current writer
+		 */
+		Code op(int opcode) {
+			code.write(opcode);
+			return this;
+		}
+
+		/**
+		 * Load a local variable of a type on the stack.
+		 * @param type The variable type
+		 * @param slot The variable slot
+		 * @return The current writer
+		 */
+		Code load(Class<?> type, int slot) {
+			final int opcode;
+			if (!type.isPrimitive()) opcode = 0x19;
+			else if (type == long.class) opcode = 0x16;
+			else if (type == float.class) opcode = 0x17;
+			else if (type == double.class) opcode = 0x18;
+			else opcode = 0x15;
+
+			if (slot > 0xff) {
+				code.write(0xc4);
+				code.write(opcode);
+				writeShort(slot);
+			} else {
+				code.write(opcode);
+				code.write(slot);
+			}
+			return this;
+		}
+
+		/**
+		 * Return a value of a type from the method.
+		 * @param type The return type
+		 * @return The current writer
+		 */
+		Code ret(Class<?> type) {
+			if (type == void.class) code.write(RETURN);
+			else if (!type.isPrimitive()) code.write(0xb0);
+			else if (type == long.class) code.write(0xad);
+			else if (type == float.class) code.write(0xae);
+			else if (type == double.class) code.write(0xaf);
+			else code.write(0xac);
+			return this;
+		}
+
+		Code getField(String owner, String name, String descriptor) {
+			return memberOp(0xb4, member(CONSTANT_FIELDREF, owner, name, descriptor));
+		}
+
+		Code putField(String owner, String name, String descriptor) {
+			return memberOp(0xb5, member(CONSTANT_FIELDREF, owner, name, descriptor));
+		}
+
+		Code invokeVirtual(String owner, String name, String descriptor) {
+			return memberOp(0xb6, member(CONSTANT_METHODREF, owner, name, descriptor));
+		}
+
+		Code invokeSpecial(String owner, String name, String descriptor) {
+			return memberOp(0xb7, member(CONSTANT_METHODREF, owner, name, descriptor));
+		}
+
+		/**
+		 * Call an interface method.
+		 * @param owner The internal name of the interface
+		 * @param name The method name
+		 * @param descriptor The method descriptor
+		 * @param slots The number of stack slots of the receiver and the arguments
+		 * @return The current writer
+		 */
+		Code invokeInterface(String owner, String name, String descriptor, int slots) {
+			memberOp(0xb9, member(CONSTANT_INTERFACE_METHODREF, owner, name, descriptor));
+			code.write(slots);
+			code.write(0);
+			return this;
+		}
+
+		Code checkCast(String type) {
+			return memberOp(0xc0, classConstant(type));
+		}
+
+		/**
+		 * Allocate an uninitialized instance of a class.
+		 * @param type The internal name of the class
+		 * @return The current writer
+		 */
+		Code newObject(String type) {
+			return memberOp(0xbb, classConstant(type));
+		}
+
+		/**
+		 * Push an int constant on the stack.
+		 * @param value The constant, up to 32767
+		 * @return The current writer
+		 */
+		Code push(int value) {
+			if (value >= -1 && value <= 5) {
+				code.write(0x03 + value);
+			} else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+				code.write(0x10);
+				code.write(value);
+			} else {
+				code.write(0x11);
+				writeShort(value);
+			}
+			return this;
+		}
+
+		/**
+		 * Set the maximum sizes of the operand stack and of the local variables.
+		 * @param maxStack The maximum number of stack slots
+		 * @param maxLocals The number of local variable slots, parameters included
+		 */
+		void maxs(int maxStack, int maxLocals) {
+			this.maxStack = maxStack;
+			this.maxLocals = maxLocals;
+		}
+
+		private Code memberOp(int opcode, int index) {
+			code.write(opcode);
+			writeShort(index);
+			return this;
+		}
+
+		private void writeShort(int value) {
+			code.write(value >> 8);
+			code.write(value);
+		}
+
+		private void writeTo(DataOutputStream out, int codeAttribute) throws IOException {
+			out.writeShort(access);
+			out.writeShort(name);
+			out.writeShort(descriptor);
+			out.writeShort(1);
+
+			out.writeShort(codeAttribute);
+			out.writeInt(12 + code.size());
+			out.writeShort(maxStack);
+			out.writeShort(maxLocals);
+			out.writeInt(code.size());
+			code.writeTo(out);
+			out.writeShort(0);
+			out.writeShort(0);
+		}
+	}
+}
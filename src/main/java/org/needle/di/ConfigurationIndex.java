@@ -0,0 +1,111 @@
+package org.needle.di;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The reverse index of the configuration of a container : for each key, the
+ *   instances that consumed it and the member in which it was injected, so that
+ *   a configuration change is re-injected in these members only.
+ * Instances are weakly referenced, and forgotten once garbage collected.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class ConfigurationIndex {
+
+	/**
+	 * A member of an instance in which a configuration key was injected.
+	 * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+	 */
+	static final class Consumer extends WeakReference<Object> {
+
+		/**
+		 * The injected key
+		 */
+		final String key;
+
+		/**
+		 * The plan of the instance class
+		 */
+		final ServicePlan<?> plan;
+
+		/**
+		 * The member in which the key was injected
+		 */
+		final ServicePlan.Member member;
+
+		private Consumer(Object instance, ReferenceQueue<Object> queue,
+				String key, ServicePlan<?> plan, ServicePlan.Member member) {
+			super(instance, queue);
+			this.key = key;
+			this.plan = plan;
+			this.member = member;
+		}
+	}
+
+	/**
+	 * The consumers, by key
+	 */
+	private final Map<String, Set<Consumer>> consumers = new ConcurrentHashMap<>();
+
+	/**
+	 * The consumers whose instance has been garbage collected
+	 */
+	private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+	/**
+	 * Create the record of a key injected in a member of an instance, to
+	 *   register once the instance is built.
+	 * @param key The injected key
+	 * @param instance The instance
+	 * @param plan The plan of the instance class
+	 * @param member The member
+	 * @return The consumer, not registered yet
+	 */
+	Consumer consumer(String key, Object instance, ServicePlan<?> plan, ServicePlan.Member member) {
+		return new Consumer(instance, collected, key, plan, member);
+	}
+
+	/**
+	 * Record that a key was injected in a member of an instance.
+	 * @param consumer The consumer, created by this index
+	 */
+	void register(Consumer consumer) {
+		expunge();
+		consumers.computeIfAbsent(consumer.key, k -> ConcurrentHashMap.newKeySet()).add(consumer);
+	}
+
+	/**
+	 * Returns the consumers of a key.
+	 * @param key The configuration key
+	 * @return The consumers, some of which may have been collected
+	 */
+	Set<Consumer> getConsumers(String key) {
+		expunge();
+		return consumers.getOrDefault(key, Collections.emptySet());
+	}
+
+	/**
+	 * Returns the keys consumed so far.
+	 * @return The keys, some of which may have no live consumer anymore
+	 */
+	Set<String> getKeys() {
+		return consumers.keySet();
+	}
+
+	/**
+	 * Forget the consumers whose instance has been garbage collected.
+	 */
+	private void expunge() {
+		for (Object ref; (ref = collected.poll()) != null; ) {
+			final Consumer consumer = (Consumer) ref;
+			final Set<Consumer> set = consumers.get(consumer.key);
+			if (set != null) {
+				set.remove(consumer);
+			}
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package org.needle.di;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable configuration of a container : the properties put by the program,
+ *   on top of the properties files sources, the last source overriding the
+ *   previous ones.
+ * Looking a key up reads the sources directly, so that only the keys consumed by
+ *   the services are ever decoded from the files. Iterating over the snapshot
+ *   decodes all of them.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class ConfigurationSnapshot extends AbstractMap<String, Object> {
+
+	/**
+	 * The properties put by the program
+	 */
+	private final Map<String, Object> values;
+
+	/**
+	 * The properties files, in declaration order
+	 */
+	private final PropertiesSource[] sources;
+
+	/**
+	 * All the properties, once iterated
+	 */
+	private volatile Set<Entry<String, Object>> entries;
+
+	/**
+	 * Create a snapshot.
+	 * @param values The properties put by the program
+	 * @param sources The properties files, in declaration order
+	 */
+	ConfigurationSnapshot(Map<String, ?> values, List<PropertiesSource> sources) {
+		this.values = Collections.unmodifiableMap(new HashMap<>(values));
+		this.sources = sources.toArray(new PropertiesSource[0]);
+	}
+
+	/**
+	 * Returns a snapshot with some properties changed by the program.
+	 * @param changes The changed properties
+	 * @return The new snapshot, with the same sources
+	 */
+	ConfigurationSnapshot with(Map<String, ?> changes) {
+		final Map<String, Object> next = new HashMap<>(values);
+		next.putAll(changes);
+		return new ConfigurationSnapshot(next, getSources());
+	}
+
+	/**
+	 * Returns a snapshot reading other versions of the properties files.
+	 * @param sources The properties files, in declaration order
+	 * @return The new snapshot, with the same properties put by the program
+	 */
+	ConfigurationSnapshot with(List<PropertiesSource> sources) {
+		return new ConfigurationSnapshot(values, sources);
+	}
+
+	/**
+	 * Returns the properties files.
+	 * @return The sources, in declaration order
+	 */
+	List<PropertiesSource> getSources() {
+		return Collections.unmodifiableList(Arrays.asList(sources));
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (values.containsKey(key)) {
+			return true;
+		}
+		if (key instanceof String) {
+			for (int i = sources.length - 1; i >= 0; i--) {
+				if (sources[i].contains((String) key)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (values.containsKey(key)) {
+			return values.get(key);
+		}
+		if (key instanceof String) {
+			for (int i = sources.length - 1; i >= 0; i--) {
+				final String value = sources[i].get((String) key);
+				if (value != null) {
+					return value;
+				}
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		Set<Entry<String, Object>> entries = this.entries;
+		if (entries == null) {
+			final Map<String, Object> all = new LinkedHashMap<>();
+			for (PropertiesSource source : sources) {
+				all.putAll(source.toMap());
+			}
+			all.putAll(values);
+			this.entries = entries = Collections.unmodifiableMap(all).entrySet();
+		}
+		return entries;
+	}
+}
@@ -0,0 +1,112 @@
+package org.needle.di;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Watches the properties files of a container, and reloads them when one of
+ *   them is modified or replaced.
+ * The watcher runs in a daemon thread. A reload that fails is reported to the
+ *   uncaught exception handler of the thread, and the previous configuration
+ *   is kept until the next change.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class ConfigurationWatcher implements Runnable {
+
+	/**
+	 * The container to reload
+	 */
+	private final Container container;
+
+	/**
+	 * The watched files, as absolute paths
+	 */
+	private final Set<Path> files = new HashSet<>();
+
+	/**
+	 * The watch service of the directories of the files
+	 */
+	private final WatchService service;
+
+	/**
+	 * The watcher thread
+	 */
+	private final Thread thread;
+
+	/**
+	 * Start watching the properties files of a container.
+	 * @param container The container to reload
+	 * @param paths The properties files
+	 * @throws IOException If a directory cannot be watched
+	 */
+	ConfigurationWatcher(Container container, List<Path> paths) throws IOException {
+		this.container = container;
+		this.service = FileSystems.getDefault().newWatchService();
+		try {
+			final Set<Path> directories = new HashSet<>();
+			for (Path path : paths) {
+				final Path file = path.toAbsolutePath().normalize();
+				files.add(file);
+				if (directories.add(file.getParent())) {
+					file.getParent().register(service, ENTRY_CREATE, ENTRY_MODIFY);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			service.close();
+			throw e;
+		}
+
+		this.thread = new Thread(this, "needle-configuration-watcher");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				final WatchKey key = service.take();
+				final Path directory = (Path) key.watchable();
+
+				boolean changed = false;
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.context() instanceof Path &&
+							files.contains(directory.resolve((Path) event.context()))) {
+						changed = true;
+					}
+				}
+				key.reset();
+
+				if (changed) {
+					try {
+						container.reload();
+					} catch (Exception e) {
+						thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+					}
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// The watcher is stopped
+		}
+	}
+
+	/**
+	 * Stop watching the files.
+	 * @throws IOException If the watch service cannot be closed
+	 */
+	void close() throws IOException {
+		service.close();
+		thread.interrupt();
+	}
+}
@@ -0,0 +1,1044 @@
+package org.needle.di;
+
+import org.needle.di.annotations.Qualifier;
+import org.needle.di.annotations.Service;
+import org.needle.di.exceptions.InjectionException;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.needle.di.exceptions.InjectionException.*;
+
+/**
+ * A container holds what ServiceBuilder instances share beyond a single build :
+ *   the bindings of types, interfaces most of the time, to their implementation
+ *   class, the modules whose @Service annotated methods provide the instances of
+ *   types that are not services themselves, the contributions to multibindings,
+ *   the singleton instances, and a configuration that can be changed at runtime.
+ * A container is immutable once built : all the bindings are validated and
+ *   indexed by type when build() is called, so that resolving the binding of
+ *   an injection point is a single lookup, and any ambiguity is reported
+ *   before the first injection. Use builder() to create one, and instance()
+ *   to get a ServiceBuilder bound to it.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public final class Container implements AutoCloseable {
+
+	/**
+	 * Class that allows the developer to register modules and bindings in a
+	 *   chained way, before building the container.
+	 * @see Container#builder()
+	 * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+	 */
+	public static final class Builder implements org.needle.di.Builder<Container, InjectionException> {
+
+		/**
+		 * The installed modules instances
+		 */
+		private final List<Object> modules = new ArrayList<>();
+
+		/**
+		 * The declared bindings
+		 */
+		private final List<Binder<?>> binders = new ArrayList<>();
+
+		/**
+		 * The initial configuration
+		 */
+		private final Map<String, Object> configuration = new HashMap<>();
+
+		/**
+		 * The properties files of the configuration
+		 */
+		private final List<Path> sources = new ArrayList<>();
+
+		/**
+		 * Whether the properties files are watched
+		 */
+		private boolean watchSources;
+
+		/**
+		 * Whether the container records the graph of the services it builds
+		 */
+		private boolean recordGraph;
+
+		/**
+		 * Whether the container injects proxies at the back edge of the cycles
+		 */
+		private boolean resolveCycles;
+
+		/**
+		 * Whether the container re-injects the configuration changes in the prototypes
+		 */
+		private boolean reconfigurePrototypes;
+
+		/**
+		 * Create a container builder.
+		 * This method is internal and should not be called directly.
+		 * @see Container#builder()
+		 */
+		private Builder() {
+		}
+
+		/**
+		 * Install a module : each of its methods annotated with @Service provides
+		 *   the instances of its return type, its arguments being injected.
+		 * @param module The module instance
+		 * @return The current builder
+		 */
+		public Builder install(Object module) {
+			modules.add(Objects.requireNonNull(module));
+			return this;
+		}
+
+		/**
+		 * Put a property in the container configuration.
+		 * @param key The property key
+		 * @param value The property value
+		 * @return The current builder
+		 */
+		public Builder configure(String key, Object value) {
+			configuration.put(key, value);
+			return this;
+		}
+
+		/**
+		 * Put all the properties of a map in the container configuration.
+		 * @param configuration The map that contains configuration
+		 * @return The current builder
+		 */
+		public Builder configure(Map<String, ?> configuration) {
+			this.configuration.putAll(configuration);
+			return this;
+		}
+
+		/**
+		 * Add a properties file to the container configuration. The properties put
+		 *   by configure() take precedence over the files, and a file over the ones
+		 *   added before it. Values are read as Strings, and converted to the type
+		 *   of the @Resolve members that consume them.
+		 * @param path The properties file
+		 * @return The current builder
+		 * @see Container#reload()
+		 */
+		public Builder source(Path path) {
+			sources.add(Objects.requireNonNull(path));
+			return this;
+		}
+
+		/**
+		 * Make the container watch its properties files, and reload them as soon
+		 *   as one is modified or replaced. The watcher is stopped when the
+		 *   container is closed.
+		 * @return The current builder
+		 * @see Container#close()
+		 */
+		public Builder watchSources() {
+			this.watchSources = true;
+			return this;
+		}
+
+		/**
+		 * Make the container record the graph of the services it builds, with the
+		 *   construction time of each one.
+		 * @return The current builder
+		 * @see Container#getGraph()
+		 */
+		public Builder recordGraph() {
+			this.recordGraph = true;
+			return this;
+		}
+
+		/**
+		 * Make the container resolve the dependency cycles whose back edge is an
+		 *   injection point of a public interface bound in the container : the
+		 *   instance still in construction is injected there as a proxy, which
+		 *   delegates to it once it is built. Calling the proxy before, from a
+		 *   constructor for instance, throws an IllegalStateException. The other
+		 *   cycles still throw a CyclicDependencyException, and so do the cycles
+		 *   in which a singleton or a pooled instance would hold the proxy of an
+		 *   instance that is not a singleton.
+		 * @return The current builder
+		 * @see org.needle.di.exceptions.CyclicDependencyException
+		 */
+		public Builder resolveCycles() {
+			this.resolveCycles = true;
+			return this;
+		}
+
+		/**
+		 * Make the container re-inject the configuration changes in the prototypes
+		 *   it has built too, as long as they are alive. By default, only the
+		 *   singletons and the pooled instances, and the dependencies they hold, are
+		 *   reconfigured : recording the prototypes, which are often thrown away
+		 *   right after their build, slows every build that consumes configuration.
+		 * @return The current builder
+		 * @see Container#reconfigure(Map)
+		 */
+		public Builder reconfigurePrototypes() {
+			this.reconfigurePrototypes = true;
+			return this;
+		}
+
+		/**
+		 * Declare the binding of a type. By default the type is bound to itself,
+		 *   unqualified, in the prototype scope.
+		 * @param type The type to bind
+		 * @param <T> The bound type
+		 * @return The binder, to configure the binding
+		 */
+		public <T> Binder<T> bind(Class<T> type) {
+			final Binder<T> binder = new Binder<>(this, type, false);
+			binders.add(binder);
+			return binder;
+		}
+
+		/**
+		 * Declare a contribution to a type. All the contributions to a type are
+		 *   injected together, in declaration order, in the List and Set injection
+		 *   points of the type, and the named ones in its Map injection points, keyed
+		 *   by their name.
+		 * @param type The type to contribute to
+		 * @param <T> The contributed type
+		 * @return The binder, to configure the contribution
+		 */
+		public <T> Binder<T> contribute(Class<T> type) {
+			final Binder<T> binder = new Binder<>(this, type, true);
+			binders.add(binder);
+			return binder;
+		}
+
+		/**
+		 * Build the container, resolving the providers of all the installed modules
+		 *   and indexing all the bindings.
+		 * @return The container
+		 * @throws InjectionException If two bindings or providers have the same type and name,
+		 *   if an implementation does not match its bound type, if a provider
+		 *   method cannot be accessed, or if a properties file cannot be read
+		 */
+		@Override
+		public Container build() throws InjectionException {
+			final Index index = new Index();
+
+			for (Object module : modules) {
+				for (Method method : module.getClass().getDeclaredMethods()) {
+					if (method.isAnnotationPresent(Service.class)) {
+						try {
+							index.add(new Binding(new Provider(module, method), Scope.PROTOTYPE));
+						} catch (IllegalAccessException | RuntimeException cause) {
+							throw new InjectionException(cause, INVALID_PROVIDER, method);
+						}
+					}
+				}
+			}
+
+			for (Binder<?> binder : binders) {
+				if (binder.contribution) {
+					index.contribute(binder.toBinding());
+				} else {
+					index.add(binder.toBinding());
+				}
+			}
+			final Container container = new Container(index.freeze(),
+					new ConfigurationSnapshot(configuration, load(sources)),
+					recordGraph ? new ServiceGraph.Recorder() : null, resolveCycles, reconfigurePrototypes);
+
+			if (watchSources && !sources.isEmpty()) {
+				try {
+					container.watcher = new ConfigurationWatcher(container, sources);
+				} catch (IOException cause) {
+					throw new InjectionException(cause, SOURCE_UNREADABLE, sources);
+				}
+			}
+			return container;
+		}
+	}
+
+	/**
+	 * Class that allows the developer to configure the binding of a type in
+	 *   a chained way. The method done() returns a reference on the associated
+	 *   container builder.
+	 * @see Builder#bind(Class)
+	 * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+	 * @param <T> The bound type
+	 */
+	public static final class Binder<T> {
+
+		/**
+		 * The container builder in which the binding is declared
+		 */
+		private final Builder builder;
+
+		/**
+		 * The bound type
+		 */
+		private final Class<T> type;
+
+		/**
+		 * The implementation class
+		 */
+		private Class<? extends T> implementation;
+
+		/**
+		 * The binding qualifier : its name or qualifier annotation type
+		 */
+		private Object qualifier;
+
+		/**
+		 * The binding scope
+		 */
+		private Scope scope = Scope.PROTOTYPE;
+
+		/**
+		 * The pool capacity, for the pooled scope
+		 */
+		private int capacity = InstancePool.DEFAULT_CAPACITY;
+
+		/**
+		 * Whether the binding is a contribution to a multibinding
+		 */
+		private final boolean contribution;
+
+		/**
+		 * Create a binder.
+		 * This method is internal and should not be called directly.
+		 * @param builder The container builder
+		 * @param type The bound type
+		 * @param contribution Whether the binding is a contribution to a multibinding
+		 * @see Builder#bind(Class)
+		 * @see Builder#contribute(Class)
+		 */
+		private Binder(Builder builder, Class<T> type, boolean contribution) {
+			this.builder = builder;
+			this.type = Objects.requireNonNull(type);
+			this.implementation = type;
+			this.contribution = contribution;
+		}
+
+		/**
+		 * Bind the type to an implementation class.
+		 * @param implementation The class to instantiate when the type is injected
+		 * @return The current binder
+		 */
+		public Binder<T> to(Class<? extends T> implementation) {
+			this.implementation = Objects.requireNonNull(implementation);
+			return this;
+		}
+
+		/**
+		 * Qualify the binding with a name, so that several bindings of the same
+		 *   type can coexist. The name of a contribution is its key in the
+		 *   injected maps.
+		 * @param name The binding name
+		 * @return The current binder
+		 * @see Container#get(Class, String)
+		 */
+		public Binder<T> named(String name) {
+			this.qualifier = Objects.requireNonNull(name);
+			return this;
+		}
+
+		/**
+		 * Qualify the binding with a qualifier annotation, so that it is injected in
+		 *   the injection points of the type annotated by this qualifier. Only the
+		 *   qualifiers without members can qualify a binding this way : the ones with
+		 *   members qualify the provider methods they annotate.
+		 * @param qualifier The qualifier annotation type
+		 * @return The current binder
+		 * @throws IllegalArgumentException If the annotation is not a qualifier, or has members
+		 * @see Qualifier
+		 */
+		public Binder<T> qualifiedBy(Class<? extends Annotation> qualifier) {
+			if (!qualifier.isAnnotationPresent(Qualifier.class) || qualifier.getDeclaredMethods().length > 0) {
+				throw new IllegalArgumentException(qualifier.getName() + " is not a qualifier without members");
+			}
+			this.qualifier = qualifier;
+			return this;
+		}
+
+		/**
+		 * Set the scope of the binding.
+		 * @param scope The binding scope
+		 * @return The current binder
+		 */
+		public Binder<T> in(Scope scope) {
+			this.scope = Objects.requireNonNull(scope);
+			return this;
+		}
+
+		/**
+		 * Set the binding in the pooled scope, with a given pool capacity.
+		 * @param capacity The maximum number of idle instances shared between
+		 *   threads, on top of the few ones kept by each thread.
+		 * @return The current binder
+		 * @see Scope#POOLED
+		 */
+		public Binder<T> pooled(int capacity) {
+			if (capacity < 0) {
+				throw new IllegalArgumentException("The pool capacity cannot be negative : " + capacity);
+			}
+			this.scope = Scope.POOLED;
+			this.capacity = capacity;
+			return this;
+		}
+
+		/**
+		 * Returns the container builder in which the binding is declared.
+		 * @return The associated container builder
+		 */
+		public Builder done() {
+			return builder;
+		}
+
+		/**
+		 * Validate the binding and resolve it.
+		 * @return The resolved binding
+		 * @throws InjectionException If the implementation does not match the bound type
+		 */
+		private Binding toBinding() throws InjectionException {
+			if (!type.isAssignableFrom(implementation)) {
+				throw new InjectionException(NOT_AN_IMPLEMENTATION,
+						implementation.getName(), type.getName());
+			}
+			if (implementation.isInterface() || Modifier.isAbstract(implementation.getModifiers())) {
+				throw new InjectionException(INSTANTIATION_FAILED, implementation.getName());
+			}
+			return new Binding(type, qualifier, implementation, scope, capacity);
+		}
+	}
+
+	/**
+	 * The bindings of a container, indexed by key id, and the unqualified ones
+	 *   by type too.
+	 * Filled once when the container is built and never modified afterwards,
+	 *   so that it can be read concurrently without any lock.
+	 * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+	 */
+	private static final class Index {
+
+		/**
+		 * The unqualified bindings, by type
+		 */
+		private final Map<Class<?>, Binding> bindings = new IdentityHashMap<>();
+
+		/**
+		 * All the bindings, by key id, while the container is built
+		 */
+		private final Map<Integer, Binding> keys = new HashMap<>();
+
+		/**
+		 * All the bindings, indexed by key id, once the container is built
+		 */
+		private Binding[] keyed = new Binding[0];
+
+		/**
+		 * The contributions, by type, while the container is built
+		 */
+		private final Map<Class<?>, List<Binding>> contributions = new IdentityHashMap<>();
+
+		/**
+		 * The multibindings, by type, once the container is built
+		 */
+		private final Map<Class<?>, Multibinding> multibindings = new IdentityHashMap<>();
+
+		/**
+		 * Index a binding.
+		 * @param binding The binding to index
+		 * @throws InjectionException If a binding with the same type and name is already indexed
+		 */
+		private void add(Binding binding) throws InjectionException {
+			final Binding previous = keys.putIfAbsent(binding.getKey(), binding);
+			if (previous == null && binding.getQualifier() == null) {
+				bindings.put(binding.getType(), binding);
+			}
+
+			if (previous != null) {
+				throw new InjectionException(AMBIGUOUS_BINDINGS, binding.getType().getName(),
+						previous.describe(), binding.describe());
+			}
+		}
+
+		/**
+		 * Add a contribution to the multibinding of its type.
+		 * @param binding The contribution
+		 * @throws InjectionException If a contribution with the same type and name is already added
+		 */
+		private void contribute(Binding binding) throws InjectionException {
+			final List<Binding> contributions =
+					this.contributions.computeIfAbsent(binding.getType(), type -> new ArrayList<>());
+
+			for (Binding previous : contributions) {
+				if (binding.getName() != null && binding.getName().equals(previous.getName())) {
+					throw new InjectionException(AMBIGUOUS_BINDINGS, binding.getType().getName(),
+							previous.describe(), binding.describe());
+				}
+			}
+			contributions.add(binding);
+		}
+
+		/**
+		 * Turn the contributions of each type into its multibinding.
+		 * @return The current index
+		 */
+		private Index freeze() {
+			contributions.forEach((type, bindings) -> multibindings.put(type, new Multibinding(bindings)));
+			contributions.clear();
+
+			keyed = new Binding[keys.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1];
+			keys.forEach((key, binding) -> keyed[key] = binding);
+			return this;
+		}
+	}
+
+	/**
+	 * The container used by builders created without any container. It has no
+	 *   configuration to change, so it does not record its consumers.
+	 */
+	static final Container EMPTY = new Container(new Index(),
+			new ConfigurationSnapshot(Collections.emptyMap(), Collections.emptyList()), null, false, false);
+
+	/**
+	 * The bindings of the container
+	 */
+	private final Index index;
+
+	/**
+	 * The lock held while a singleton is built, so that each one is built once.
+	 * A single lock for the container prevents any deadlock between singletons
+	 *   that depend on each other.
+	 */
+	private final Object singletonLock = new Object();
+
+	/**
+	 * The current configuration snapshot, never modified : a change replaces it
+	 */
+	private volatile ConfigurationSnapshot configuration;
+
+	/**
+	 * The watcher of the properties files, or null if they are not watched
+	 */
+	private ConfigurationWatcher watcher;
+
+	/**
+	 * The members in which each configuration key has been injected
+	 */
+	private final ConfigurationIndex consumers = new ConfigurationIndex();
+
+	/**
+	 * The graph recorder, or null if the container does not record its graph
+	 */
+	private final ServiceGraph.Recorder recorder;
+
+	/**
+	 * Whether the cycles are resolved with proxies
+	 */
+	private final boolean resolveCycles;
+
+	/**
+	 * Whether the configuration changes are re-injected in the prototypes
+	 */
+	private final boolean reconfigurePrototypes;
+
+	/**
+	 * Returns a builder for a new container.
+	 * @return The container builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Create a container.
+	 * @param index The bindings of the container
+	 * @param configuration The initial configuration
+	 * @param recorder The graph recorder, or null
+	 * @param resolveCycles Whether the cycles are resolved with proxies
+	 * @param reconfigurePrototypes Whether the changes are re-injected in the prototypes
+	 */
+	private Container(Index index, ConfigurationSnapshot configuration, ServiceGraph.Recorder recorder,
+			boolean resolveCycles, boolean reconfigurePrototypes) {
+		this.index = index;
+		this.recorder = recorder;
+		this.resolveCycles = resolveCycles;
+		this.reconfigurePrototypes = reconfigurePrototypes;
+		this.configuration = configuration;
+	}
+
+	/**
+	 * Read and index properties files.
+	 * @param paths The files
+	 * @return The sources
+	 * @throws InjectionException If a file cannot be read, or is malformed
+	 */
+	private static List<PropertiesSource> load(List<Path> paths) throws InjectionException {
+		final List<PropertiesSource> sources = new ArrayList<>(paths.size());
+		for (Path path : paths) {
+			try {
+				sources.add(PropertiesSource.load(path));
+			} catch (IOException | IllegalArgumentException cause) {
+				throw new InjectionException(cause, SOURCE_UNREADABLE, path);
+			}
+		}
+		return sources;
+	}
+
+	/**
+	 * Returns a builder for the class baseClass, bound to this container.
+	 * @param <T> type of the instance to build
+	 * @param baseClass Class of the instance to build
+	 * @return The brand new builder of T instance
+	 */
+	public <T> ServiceBuilder<T> instance(Class<T> baseClass) {
+		return new ServiceBuilder<>(baseClass, this);
+	}
+
+	/**
+	 * Returns an instance of the given type, according to its binding.
+	 * @param <T> The requested type
+	 * @param type The requested type
+	 * @return The instance
+	 * @throws InjectionException An error has occurred during the instantiation or dependency injection process
+	 */
+	public <T> T get(Class<T> type) throws InjectionException {
+		return instance(type).build();
+	}
+
+	/**
+	 * Try to get an instance of the given type, according to its binding.
+	 * @param <T> The requested type
+	 * @param type The requested type
+	 * @return The instance, or an empty Optional if the instance cannot be built
+	 * @see ServiceBuilder#tryBuild()
+	 */
+	public <T> Optional<T> tryGet(Class<T> type) {
+		return instance(type).tryBuild();
+	}
+
+	/**
+	 * Returns an instance of the given type, according to its binding with the given name.
+	 * @param <T> The requested type
+	 * @param type The requested type
+	 * @param name The binding name
+	 * @return The instance
+	 * @throws InjectionException If no binding has this type and name, or if an error
+	 *   has occurred during the instantiation or dependency injection process
+	 */
+	public <T> T get(Class<T> type, String name) throws InjectionException {
+		return type.cast(instance(type).build(getBinding(type, name)));
+	}
+
+	/**
+	 * Warm the container up before it takes traffic : in a background thread, build
+	 *   all the bound types and the given services again and again, so that the JIT
+	 *   compiles their construction paths. The singletons are built once for all,
+	 *   the other instances are thrown away, and the configuration they consume
+	 *   is not recorded. The types bound to a provider are skipped, since a provider
+	 *   may acquire resources, unless they are among the given services.
+	 * The warm-up stops as soon as the JIT compilation has stabilized, or after the
+	 *   given number of iterations, so that a readiness probe can wait for the
+	 *   returned future.
+	 * @param iterations The maximum number of times each service is built
+	 * @param services Some services that are not bound, to build too
+	 * @return The future report of the warm-up, completed exceptionally with the
+	 *   InjectionException of the first build that fails
+	 * @throws IllegalArgumentException If the number of iterations is not positive
+	 */
+	public CompletableFuture<WarmUpReport> warmUp(int iterations, Class<?>... services) {
+		if (iterations <= 0) {
+			throw new IllegalArgumentException("The number of iterations must be positive : " + iterations);
+		}
+
+		final List<org.needle.di.Builder<?, InjectionException>> roots = new ArrayList<>();
+		for (Binding binding : index.keys.values()) {
+			if (binding.getProvider() == null) {
+				roots.add(root(binding));
+			}
+		}
+		for (Class<?> service : services) {
+			roots.add(instance(service).throwaway());
+		}
+		return new WarmUp(roots, iterations).getReport();
+	}
+
+	/**
+	 * Returns the builder of the instances of a binding, for the warm-up.
+	 * @param binding The binding
+	 * @return The builder
+	 */
+	private org.needle.di.Builder<?, InjectionException> root(Binding binding) {
+		final ServiceBuilder<?> builder = instance(binding.getType()).throwaway();
+		return () -> builder.build(binding);
+	}
+
+	/**
+	 * Open a scope, in which the instances of the pooled bindings are borrowed
+	 *   from their pool, until the scope is closed.
+	 * @return The new scope
+	 * @see Scope#POOLED
+	 */
+	public ServiceScope openScope() {
+		return new ServiceScope(this);
+	}
+
+	/**
+	 * Returns the metrics of the pool of an unqualified pooled binding.
+	 * @param type The bound type
+	 * @return A snapshot of the pool metrics
+	 * @throws IllegalArgumentException If the type has no unqualified pooled binding
+	 */
+	public PoolMetrics getPoolMetrics(Class<?> type) {
+		return getPoolMetrics(getBinding(type), type);
+	}
+
+	/**
+	 * Returns the metrics of the pool of a named pooled binding.
+	 * @param type The bound type
+	 * @param name The binding name
+	 * @return A snapshot of the pool metrics
+	 * @throws IllegalArgumentException If the type has no pooled binding with this name
+	 */
+	public PoolMetrics getPoolMetrics(Class<?> type, String name) {
+		return getPoolMetrics(getBinding(BindingKey.find(type, name)), type);
+	}
+
+	private static PoolMetrics getPoolMetrics(Binding binding, Class<?> type) {
+		if (binding == null || binding.getPool() == null) {
+			throw new IllegalArgumentException(type.getName() + " is not bound in the pooled scope");
+		}
+		return binding.getPool().getMetrics();
+	}
+
+	/**
+	 * Returns the current configuration of the container. The returned map is an
+	 *   immutable snapshot : it does not reflect later changes.
+	 * @return The configuration snapshot
+	 */
+	public Map<String, Object> getConfiguration() {
+		return configuration;
+	}
+
+	/**
+	 * Change a property of the container configuration.
+	 * @param key The property key
+	 * @param value The new property value
+	 * @throws InjectionException If the re-injection of the new value has failed
+	 * @see Container#reconfigure(Map)
+	 */
+	public void reconfigure(String key, Object value) throws InjectionException {
+		reconfigure(Collections.singletonMap(key, value));
+	}
+
+	/**
+	 * Change some properties of the container configuration. The singletons and the
+	 *   pooled instances built by the container, and the dependencies they hold,
+	 *   which consumed a changed key, are re-injected in the members that received
+	 *   the key, and only in them, and so are the prototypes still alive if the
+	 *   container reconfigures them. Then the
+	 *   @Reconfigured method of each of these instances is called with the changed
+	 *   keys it consumed, outside of the container lock, so that it may get services.
+	 * Builds in progress keep the configuration snapshot they started with, and
+	 *   their instances receive the change once the build is over.
+	 * @param changes The changed properties
+	 * @throws InjectionException If the re-injection of a new value, or the
+	 *   notification of an instance, has failed
+	 */
+	public void reconfigure(Map<String, ?> changes) throws InjectionException {
+		final Map<Object, Set<String>> reconfigured = new IdentityHashMap<>();
+		final Map<Object, ServicePlan<?>> plans = new IdentityHashMap<>();
+		synchronized (consumers) {
+			final Set<String> changed = new LinkedHashSet<>();
+			for (Map.Entry<String, ?> change : changes.entrySet()) {
+				if (!configuration.containsKey(change.getKey()) ||
+						!Objects.equals(configuration.get(change.getKey()), change.getValue())) {
+					changed.add(change.getKey());
+				}
+			}
+			apply(configuration.with(changes), changed, reconfigured, plans);
+		}
+		notify(reconfigured, plans);
+	}
+
+	/**
+	 * Read the properties files of the configuration again. The instances which
+	 *   consumed a key whose value has changed are re-injected and notified, as
+	 *   reconfigure() does. Only the consumed keys are decoded from the files.
+	 * Builds in progress keep the configuration snapshot they started with, and
+	 *   their instances receive the change once the build is over.
+	 * A consumed key removed from the files is replaced by the default value of
+	 *   its members. If one has none, the reload fails and the current
+	 *   configuration is kept.
+	 * @throws InjectionException If a file cannot be read, if a consumed key has
+	 *   been removed or cannot be converted, or if the re-injection of a new value,
+	 *   or the notification of an instance, has failed
+	 * @see Builder#source(Path)
+	 */
+	public void reload() throws InjectionException {
+		final List<Path> paths = new ArrayList<>();
+		for (PropertiesSource source : configuration.getSources()) {
+			paths.add(source.getPath());
+		}
+		// Files are read outside of the lock, builds keep reading the current snapshot
+		final List<PropertiesSource> sources = load(paths);
+
+		final Map<Object, Set<String>> reconfigured = new IdentityHashMap<>();
+		final Map<Object, ServicePlan<?>> plans = new IdentityHashMap<>();
+		synchronized (consumers) {
+			final ConfigurationSnapshot next = configuration.with(sources);
+			final Set<String> changed = new LinkedHashSet<>();
+			for (String key : consumers.getKeys()) {
+				if (configuration.containsKey(key) != next.containsKey(key) ||
+						!Objects.equals(configuration.get(key), next.get(key))) {
+					changed.add(key);
+				}
+			}
+			apply(next, changed, reconfigured, plans);
+		}
+		notify(reconfigured, plans);
+	}
+
+	/**
+	 * Resolve the changed keys for their consumers, swap the configuration
+	 *   snapshot, then re-inject the values. The caller holds the lock on the
+	 *   consumers, and notifies the re-injected instances once it is released.
+	 * All the values are resolved before the swap : if a key has been removed
+	 *   without a default value, or cannot be converted, the current snapshot and
+	 *   the instances are left untouched.
+	 * @param next The new snapshot
+	 * @param changed The changed keys
+	 * @param reconfigured The keys re-injected in each instance, filled
+	 * @param plans The plan of each re-injected instance, filled
+	 * @throws InjectionException If a value cannot be resolved, or if the
+	 *   re-injection of a new value has failed
+	 */
+	private void apply(ConfigurationSnapshot next, Set<String> changed,
+			Map<Object, Set<String>> reconfigured, Map<Object, ServicePlan<?>> plans) throws InjectionException {
+		final Map<ConfigurationIndex.Consumer, Object> values = new LinkedHashMap<>();
+		for (String key : changed) {
+			for (ConfigurationIndex.Consumer consumer : consumers.getConsumers(key)) {
+				if (consumer.get() != null) {
+					values.put(consumer, resolve(consumer, next));
+				}
+			}
+		}
+		configuration = next;
+
+		for (Map.Entry<ConfigurationIndex.Consumer, Object> value : values.entrySet()) {
+			reinject(value.getKey(), value.getValue(), reconfigured, plans);
+		}
+	}
+
+	/**
+	 * Stop watching the properties files, if they are watched. The container
+	 *   can still be used, without reloading the files on change.
+	 * @throws IOException If the watch service cannot be closed
+	 * @see Builder#watchSources()
+	 */
+	@Override
+	public void close() throws IOException {
+		if (watcher != null) {
+			watcher.close();
+		}
+	}
+
+	/**
+	 * Returns a consumer record of a configuration key injected in a member of
+	 *   an instance in construction.
+	 * @param key The injected key
+	 * @param instance The instance
+	 * @param plan The plan of the instance class
+	 * @param member The member
+	 * @return The consumer, to register once the instance is built
+	 * @see Container#consumed(Map, Collection)
+	 */
+	ConfigurationIndex.Consumer consumer(String key, Object instance, ServicePlan<?> plan,
+			ServicePlan.Member member) {
+		return consumers.consumer(key, instance, plan, member);
+	}
+
+	/**
+	 * Record the configuration keys injected in the members of the instances of a
+	 *   build, once it is over, to re-inject them on change.
+	 * The registration is atomic with respect to reconfigure() : a change made
+	 *   since the build took its configuration snapshot is re-injected right away,
+	 *   and any later change finds the consumers registered. The re-injected
+	 *   instances are notified once the lock is released.
+	 * @param snapshot The configuration snapshot used by the build
+	 * @param built The consumers of the build
+	 * @throws InjectionException If the re-injection of a changed value, or the
+	 *   notification of an instance, has failed
+	 */
+	void consumed(Map<String, Object> snapshot, Collection<ConfigurationIndex.Consumer> built)
+			throws InjectionException {
+		final Map<Object, Set<String>> reconfigured = new IdentityHashMap<>();
+		final Map<Object, ServicePlan<?>> plans = new IdentityHashMap<>();
+		synchronized (consumers) {
+			for (ConfigurationIndex.Consumer consumer : built) {
+				consumers.register(consumer);
+			}
+			for (ConfigurationIndex.Consumer consumer : built) {
+				if (configuration != snapshot &&
+						!Objects.equals(configuration.get(consumer.key), snapshot.get(consumer.key))) {
+					reinject(consumer, resolve(consumer, configuration), reconfigured, plans);
+				}
+			}
+		}
+		notify(reconfigured, plans);
+	}
+
+	/**
+	 * Resolve the value of a key for the member of a consumer instance, as the
+	 *   build that injected it did : the default value of the member replaces a
+	 *   missing key.
+	 * @param consumer The consumer
+	 * @param snapshot The configuration snapshot
+	 * @return The value to inject
+	 * @throws InjectionException If the key is missing and the member has no
+	 *   default value, or if the value cannot be converted to the member type
+	 */
+	private static Object resolve(ConfigurationIndex.Consumer consumer, Map<String, Object> snapshot)
+			throws InjectionException {
+		final ServicePlan.Member member = consumer.member;
+		if (!member.isResolvable(snapshot)) {
+			throw new InjectionException(UNRESOLVABLE, member.getName(), member.key);
+		}
+		return member.resolve(snapshot);
+	}
+
+	/**
+	 * Inject the value of a key in the member of a consumer instance.
+	 * @param consumer The consumer
+	 * @param value The resolved value
+	 * @param reconfigured The keys re-injected in each instance so far
+	 * @param plans The plan of each re-injected instance
+	 * @throws InjectionException If the re-injection has failed
+	 */
+	private void reinject(ConfigurationIndex.Consumer consumer, Object value,
+			Map<Object, Set<String>> reconfigured, Map<Object, ServicePlan<?>> plans) throws InjectionException {
+		final Object instance = consumer.get();
+		if (instance == null) {
+			return;
+		}
+		try {
+			consumer.member.inject(instance, value);
+		} catch (ReflectiveOperationException cause) {
+			throw consumer.member.failure(cause);
+		}
+		reconfigured.computeIfAbsent(instance, i -> new LinkedHashSet<>()).add(consumer.key);
+		plans.put(instance, consumer.plan);
+	}
+
+	/**
+	 * Call the @Reconfigured method of the re-injected instances.
+	 * @param reconfigured The keys re-injected in each instance
+	 * @param plans The plan of each re-injected instance
+	 * @throws InjectionException If the notification of an instance has failed
+	 */
+	private static void notify(Map<Object, Set<String>> reconfigured, Map<Object, ServicePlan<?>> plans)
+			throws InjectionException {
+		for (Map.Entry<Object, Set<String>> instance : reconfigured.entrySet()) {
+			try {
+				plans.get(instance.getKey()).reconfigured(instance.getKey(),
+						Collections.unmodifiableSet(instance.getValue()));
+			} catch (ReflectiveOperationException cause) {
+				throw new InjectionException(cause, RECONFIGURATION_FAILED,
+						instance.getKey().getClass().getName());
+			}
+		}
+	}
+
+	/**
+	 * Returns the graph of the services built so far by the container.
+	 * @return A snapshot of the graph
+	 * @throws IllegalStateException If the container does not record its graph
+	 * @see Builder#recordGraph()
+	 */
+	public ServiceGraph getGraph() {
+		if (recorder == null) {
+			throw new IllegalStateException("The container does not record its graph");
+		}
+		return recorder.snapshot();
+	}
+
+	/**
+	 * Returns the graph recorder.
+	 * @return The recorder, or null if the container does not record its graph
+	 */
+	ServiceGraph.Recorder getRecorder() {
+		return recorder;
+	}
+
+	/**
+	 * Indicates whether the container resolves the cycles with proxies.
+	 * @return true if the cycles are resolved
+	 * @see Builder#resolveCycles()
+	 */
+	boolean isResolvingCycles() {
+		return resolveCycles;
+	}
+
+	/**
+	 * Indicates whether the configuration changes are re-injected in the prototypes.
+	 * @return true if the prototypes are reconfigured
+	 * @see Builder#reconfigurePrototypes()
+	 */
+	boolean isReconfiguringPrototypes() {
+		return reconfigurePrototypes;
+	}
+
+	/**
+	 * Returns the unqualified binding of a type.
+	 * @param type The bound type
+	 * @return The binding, or null if the type is not bound
+	 */
+	Binding getBinding(Class<?> type) {
+		return index.bindings.get(type);
+	}
+
+	/**
+	 * Returns the named binding of a type.
+	 * @param type The bound type
+	 * @param name The binding name
+	 * @return The binding
+	 * @throws InjectionException If no binding has this type and name
+	 */
+	Binding getBinding(Class<?> type, String name) throws InjectionException {
+		final Binding binding = getBinding(BindingKey.find(type, name));
+
+		if (binding == null) {
+			throw new InjectionException(UNBOUND, type.getName(), name);
+		}
+		return binding;
+	}
+
+	/**
+	 * Returns the binding of a key.
+	 * @param key The key id of an injection point or a binding
+	 * @return The binding, or null if the key is not bound
+	 */
+	Binding getBinding(int key) {
+		final Binding[] keyed = index.keyed;
+		return key >= 0 && key < keyed.length ? keyed[key] : null;
+	}
+
+	/**
+	 * Returns the multibinding of a type.
+	 * @param type The contributed type
+	 * @return The multibinding, or null if nothing is contributed to the type
+	 */
+	Multibinding getMultibinding(Class<?> type) {
+		return index.multibindings.get(type);
+	}
+
+	/**
+	 * Returns the lock to hold while building a singleton.
+	 * @return The singleton lock
+	 */
+	Object getSingletonLock() {
+		return singletonLock;
+	}
+}
@@ -0,0 +1,223 @@
+package org.needle.di;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.needle.di.ClassWriter.*;
+
+/**
+ * The proxies injected at the back edge of a dependency cycle, in place of the
+ *   instance still in construction, when the container resolves cycles.
+ * A proxy class is generated once for each interface, and implements all its
+ *   methods by delegating them to the instance held by a Reference, stored in a
+ *   final field of the proxy. The reference is resolved as soon as the instance
+ *   is built, so the calls cost a field read and a monomorphic interface call,
+ *   which the JIT inlines, instead of the reflective dispatch of a
+ *   java.lang.reflect.Proxy.
+ * Only public interfaces, whose methods are all declared in public interfaces,
+ *   can be proxied : the proxy class is defined in its own class loader.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class CycleProxy {
+
+	/**
+	 * The reference of a proxy to the instance it stands for, resolved once the
+	 *   instance is built. The proxies reach the instance only through the graph
+	 *   built with it, so they never see the reference before it is resolved,
+	 *   unless they are called during the construction : the singletons holding
+	 *   a proxy are cached once it is resolved, and never if the build fails.
+	 * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+	 */
+	static final class Reference implements Supplier<Object> {
+
+		/**
+		 * The class of the instance
+		 */
+		private final Class<?> type;
+
+		/**
+		 * The instance, or null while it is in construction
+		 */
+		private volatile Object instance;
+
+		Reference(Class<?> type) {
+			this.type = type;
+		}
+
+		/**
+		 * Resolve the reference.
+		 * @param instance The built instance
+		 */
+		void resolve(Object instance) {
+			this.instance = instance;
+		}
+
+		/**
+		 * Indicates whether the instance has been built.
+		 * @return true if the reference is resolved
+		 */
+		boolean isResolved() {
+			return instance != null;
+		}
+
+		/**
+		 * Returns the instance.
+		 * @return The built instance
+		 * @throws IllegalStateException If the proxy is called while the instance
+		 *   is in construction
+		 */
+		@Override
+		public Object get() {
+			final Object instance = this.instance;
+			if (instance == null) {
+				throw new IllegalStateException("The proxy of " + type.getName() +
+						" cannot be called while the instance is in construction");
+			}
+			return instance;
+		}
+	}
+
+	/**
+	 * The constructor of the proxy class of each interface, generated on first use
+	 */
+	private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+		@Override
+		protected Constructor<?> computeValue(Class<?> type) {
+			return generate(type);
+		}
+	};
+
+	/**
+	 * The descriptor of the constructor of the proxy classes
+	 */
+	private static final String CONSTRUCTOR = descriptor(void.class, Supplier.class);
+
+	private CycleProxy() {
+	}
+
+	/**
+	 * Indicates whether a type can be proxied.
+	 * @param type The type of an injection point
+	 * @return true if the type is a public interface, whose methods are all
+	 *   declared in public interfaces
+	 */
+	static boolean supports(Class<?> type) {
+		if (!type.isInterface() || !Modifier.isPublic(type.getModifiers())) {
+			return false;
+		}
+		for (Method method : type.getMethods()) {
+			if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Create a proxy of an interface.
+	 * @param type The interface, supported
+	 * @param reference The reference to the proxied instance
+	 * @return The proxy
+	 * @see CycleProxy#supports(Class)
+	 */
+	static Object create(Class<?> type, Reference reference) {
+		try {
+			return CONSTRUCTORS.get(type).newInstance(reference);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot instantiate the proxy of " + type.getName(), e);
+		}
+	}
+
+	/**
+	 * Generate and define the proxy class of an interface.
+	 * @param type The interface
+	 * @return The constructor of the proxy class, taking the reference
+	 */
+	private static Constructor<?> generate(Class<?> type) {
+		// No class can be defined in the java packages
+		final String name = (type.getName().startsWith("java.") ? "needle." : "") +
+				type.getName() + "$$CycleProxy";
+		final String internalName = name.replace('.', '/');
+		final String supplier = internalName(Supplier.class);
+
+		final ClassWriter writer = new ClassWriter(ACC_PUBLIC | ACC_FINAL, internalName,
+				"java/lang/Object", internalName(type));
+		writer.field(ACC_PRIVATE | ACC_FINAL, "reference", descriptor(Supplier.class));
+
+		writer.method(ACC_PUBLIC, "<init>", CONSTRUCTOR)
+				.op(ALOAD_0)
+				.invokeSpecial("java/lang/Object", "<init>", "()V")
+				.op(ALOAD_0)
+				.op(ALOAD_1)
+				.putField(internalName, "reference", descriptor(Supplier.class))
+				.op(RETURN)
+				.maxs(2, 2);
+
+		for (Method method : getMethods(type).values()) {
+			final Class<?> owner = method.getDeclaringClass();
+			final boolean object = owner == Object.class;
+			final String descriptor = descriptor(method.getReturnType(), method.getParameterTypes());
+
+			final ClassWriter.Code code = writer.method(ACC_PUBLIC | ACC_FINAL, method.getName(), descriptor)
+					.op(ALOAD_0)
+					.getField(internalName, "reference", descriptor(Supplier.class))
+					.invokeInterface(supplier, "get", "()Ljava/lang/Object;", 1);
+			if (!object) {
+				code.checkCast(internalName(owner));
+			}
+
+			int slot = 1;
+			for (Class<?> parameterType : method.getParameterTypes()) {
+				code.load(parameterType, slot);
+				slot += size(parameterType);
+			}
+
+			if (object) {
+				code.invokeVirtual("java/lang/Object", method.getName(), descriptor);
+			} else {
+				code.invokeInterface(internalName(owner), method.getName(), descriptor, slot);
+			}
+			code.ret(method.getReturnType())
+					.maxs(Math.max(slot, size(method.getReturnType())), slot);
+		}
+
+		try {
+			return define(type.getClassLoader(), name, writer.toByteArray()).getConstructor(Supplier.class);
+		} catch (NoSuchMethodException | LinkageError e) {
+			throw new IllegalStateException("Cannot generate the proxy of " + type.getName(), e);
+		}
+	}
+
+	/**
+	 * Returns the methods a proxy of an interface implements : the abstract and
+	 *   default methods of the interface, and the equals, hashCode and toString
+	 *   methods of Object, all delegated to the instance.
+	 * @param type The interface
+	 * @return The methods, by name and descriptor
+	 */
+	private static Map<String, Method> getMethods(Class<?> type) {
+		final Map<String, Method> methods = new LinkedHashMap<>();
+		try {
+			for (Method method : new Method[] {
+					Object.class.getMethod("equals", Object.class),
+					Object.class.getMethod("hashCode"),
+					Object.class.getMethod("toString") }) {
+				methods.put(method.getName() + descriptor(method.getReturnType(), method.getParameterTypes()), method);
+			}
+		} catch (NoSuchMethodException e) {
+			throw new AssertionError(e);
+		}
+
+		for (Method method : type.getMethods()) {
+			if (!Modifier.isStatic(method.getModifiers())) {
+				methods.putIfAbsent(method.getName() +
+						descriptor(method.getReturnType(), method.getParameterTypes()), method);
+			}
+		}
+		return methods;
+	}
+}
@@ -0,0 +1,171 @@
+package org.needle.di;
+
+import org.needle.di.annotations.Service;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * What an injection point requires : a single instance of a type, an Optional
+ *   instance, or the collection of all the instances contributed for an element
+ *   type, when the injection point is declared as a List, a Set or a Map keyed by String.
+ * A single or Optional instance may be qualified, by @Named or by a qualifier
+ *   annotation on the injection point : its binding key is interned with the
+ *   dependency. The collections gather all the contributions, whatever their name.
+ * Dependencies are computed once, with the plan of the injection point class.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class Dependency {
+
+	/**
+	 * The shape of the injected value
+	 */
+	enum Kind {
+		INSTANCE, OPTIONAL, LIST, SET, MAP
+	}
+
+	/**
+	 * The shape of the injected value
+	 */
+	private final Kind kind;
+
+	/**
+	 * The injected type, or the element type of the injected collection
+	 */
+	private final Class<?> type;
+
+	/**
+	 * The qualifier of the injected instance, or null
+	 */
+	private final Object qualifier;
+
+	/**
+	 * The id of the binding key of the injected instance
+	 */
+	private final int key;
+
+	/**
+	 * Whether the type is annotated by @Service, and can be built without a binding
+	 */
+	private final boolean service;
+
+	/**
+	 * Create a dependency.
+	 * @param kind The shape of the injected value
+	 * @param type The injected type, or the collection element type
+	 * @param qualifier The qualifier of the injected instance, or null
+	 */
+	private Dependency(Kind kind, Class<?> type, Object qualifier) {
+		this.kind = kind;
+		this.type = type;
+		this.qualifier = qualifier;
+		this.key = BindingKey.of(type, qualifier);
+		this.service = type.isAnnotationPresent(Service.class);
+	}
+
+	/**
+	 * Returns the dependency of an unqualified injection point.
+	 * @param rawType The declared class of the injection point
+	 * @param genericType The declared generic type of the injection point
+	 * @return The dependency
+	 */
+	static Dependency of(Class<?> rawType, Type genericType) {
+		return of(rawType, genericType, new Annotation[0]);
+	}
+
+	/**
+	 * Returns the dependency of an injection point.
+	 * @param rawType The declared class of the injection point
+	 * @param genericType The declared generic type of the injection point
+	 * @param annotations The annotations of the injection point, that may qualify it
+	 * @return The dependency
+	 */
+	static Dependency of(Class<?> rawType, Type genericType, Annotation[] annotations) {
+		final Object qualifier = BindingKey.qualifier(annotations);
+		if (genericType instanceof ParameterizedType) {
+			final Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+			final Type element = arguments[arguments.length - 1];
+
+			if (element instanceof Class) {
+				if (rawType == Optional.class) {
+					return new Dependency(Kind.OPTIONAL, (Class<?>) element, qualifier);
+				}
+				if (rawType == List.class) {
+					return new Dependency(Kind.LIST, (Class<?>) element, null);
+				}
+				if (rawType == Set.class) {
+					return new Dependency(Kind.SET, (Class<?>) element, null);
+				}
+				if (rawType == Map.class && arguments[0] == String.class) {
+					return new Dependency(Kind.MAP, (Class<?>) element, null);
+				}
+			}
+		}
+		return new Dependency(Kind.INSTANCE, rawType, qualifier);
+	}
+
+	/**
+	 * Returns the dependencies of the parameters of a constructor or a method.
+	 * @param rawTypes The declared classes of the parameters
+	 * @param genericTypes The declared generic types of the parameters
+	 * @param annotations The annotations of the parameters
+	 * @return The dependencies
+	 */
+	static Dependency[] of(Class<?>[] rawTypes, Type[] genericTypes, Annotation[][] annotations) {
+		final Dependency[] dependencies = new Dependency[rawTypes.length];
+		// Generic types and annotations may omit synthetic parameters, such as the outer instance
+		final int offset = rawTypes.length - genericTypes.length;
+		final int annotationOffset = rawTypes.length - annotations.length;
+
+		for (int i = 0; i < dependencies.length; i++) {
+			dependencies[i] = of(rawTypes[i], i < offset ? rawTypes[i] : genericTypes[i - offset],
+					i < annotationOffset ? new Annotation[0] : annotations[i - annotationOffset]);
+		}
+		return dependencies;
+	}
+
+	/**
+	 * Returns the shape of the injected value.
+	 * @return The dependency kind
+	 */
+	Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Returns the injected type, or the element type of the injected collection.
+	 * @return The type
+	 */
+	Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the qualifier of the injected instance.
+	 * @return The qualifier, or null for an unqualified injection point
+	 */
+	Object getQualifier() {
+		return qualifier;
+	}
+
+	/**
+	 * Returns the id of the binding key of the injected instance.
+	 * @return The key id
+	 */
+	int getKey() {
+		return key;
+	}
+
+	/**
+	 * Indicates whether the type is a service, which can be built without a binding.
+	 * @return true if the type is annotated by @Service
+	 */
+	boolean isService() {
+		return service;
+	}
+}
@@ -0,0 +1,260 @@
+package org.needle.di;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static org.needle.di.ClassWriter.*;
+
+/**
+ * Generates the classes that replace reflection in the construction of the
+ *   services built often enough : a factory calling the planned constructor,
+ *   and a writer for each setter or field, calling it or writing it directly.
+ *   A ServicePlan switches to them after a number of builds of its class, like
+ *   the JIT compiles a method after a number of calls, so that the services
+ *   built only a few times never pay the generation.
+ * On Java 15 and later, each class is defined as a hidden class nestmate of the
+ *   class declaring the constructor or the member, so that it can reach its
+ *   private members. Before, or if the class cannot be opened to the container,
+ *   it is defined in its own class loader, and only the public members of the
+ *   public classes are generated. The final fields, the static members and the
+ *   primitive parameters are always left to reflection.
+ * @see ServiceBuilder#FACTORY_THRESHOLD_PROPERTY
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class FactoryGenerator {
+
+	/**
+	 * The number of builds of a class after which its factory is generated,
+	 *   negative if the factories are never generated
+	 */
+	static final int THRESHOLD = Integer.getInteger(ServiceBuilder.FACTORY_THRESHOLD_PROPERTY, 1000);
+
+	/**
+	 * MethodHandles.privateLookupIn(Class, Lookup), or null before Java 9
+	 */
+	private static final Method PRIVATE_LOOKUP_IN;
+
+	/**
+	 * Lookup.defineHiddenClass(byte[], boolean, ClassOption...), or null before Java 15
+	 */
+	private static final Method DEFINE_HIDDEN_CLASS;
+
+	/**
+	 * The options of the hidden classes : a single NESTMATE option
+	 */
+	private static final Object NESTMATE;
+
+	static {
+		Method privateLookupIn = null;
+		Method defineHiddenClass = null;
+		Object nestmate = null;
+		try {
+			final Class<?> option = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+			privateLookupIn = MethodHandles.class.getMethod("privateLookupIn",
+					Class.class, MethodHandles.Lookup.class);
+			defineHiddenClass = MethodHandles.Lookup.class.getMethod("defineHiddenClass",
+					byte[].class, boolean.class, Array.newInstance(option, 0).getClass());
+
+			nestmate = Array.newInstance(option, 1);
+			for (Object constant : option.getEnumConstants()) {
+				if ("NESTMATE".equals(((Enum<?>) constant).name())) {
+					Array.set(nestmate, 0, constant);
+				}
+			}
+		} catch (ReflectiveOperationException e) {
+			// Before Java 15 : the classes are defined in their own class loader
+			privateLookupIn = null;
+			defineHiddenClass = null;
+		}
+		PRIVATE_LOOKUP_IN = privateLookupIn;
+		DEFINE_HIDDEN_CLASS = defineHiddenClass;
+		NESTMATE = nestmate;
+	}
+
+	private FactoryGenerator() {
+	}
+
+	/**
+	 * Generate the factory of a constructor.
+	 * @param constructor The planned constructor
+	 * @return The factory, taking the constructor arguments and returning the
+	 *   new instance, or null if the constructor is left to reflection
+	 */
+	@SuppressWarnings("unchecked")
+	static Function<Object[], Object> generate(Constructor<?> constructor) {
+		final Class<?> type = constructor.getDeclaringClass();
+		final Class<?>[] parameterTypes = constructor.getParameterTypes();
+		if (Modifier.isAbstract(type.getModifiers()) || hasPrimitive(parameterTypes)) {
+			return null;
+		}
+
+		final String owner = internalName(type);
+		final String name = type.getName() + "$$NeedleFactory";
+		final ClassWriter writer = writer(name, Function.class);
+		final ClassWriter.Code code = writer.method(ACC_PUBLIC, "apply", "(Ljava/lang/Object;)Ljava/lang/Object;")
+				.newObject(owner)
+				.op(DUP);
+		for (int i = 0; i < parameterTypes.length; i++) {
+			code.op(ALOAD_1)
+					.checkCast("[Ljava/lang/Object;")
+					.push(i)
+					.op(AALOAD);
+			cast(code, parameterTypes[i]);
+		}
+		code.invokeSpecial(owner, "<init>", descriptor(void.class, parameterTypes))
+				.op(ARETURN)
+				.maxs(parameterTypes.length + 4, 2);
+
+		return (Function<Object[], Object>) define(constructor, writer, name, parameterTypes);
+	}
+
+	/**
+	 * Generate the writer of a setter.
+	 * @param method The setter, taking one argument
+	 * @return The writer, taking the target instance and the value, or null if
+	 *   the setter is left to reflection
+	 */
+	@SuppressWarnings("unchecked")
+	static BiConsumer<Object, Object> generate(Method method) {
+		final Class<?> type = method.getDeclaringClass();
+		final Class<?>[] parameterTypes = method.getParameterTypes();
+		if (Modifier.isStatic(method.getModifiers()) || type.isInterface() ||
+				parameterTypes.length != 1 || hasPrimitive(parameterTypes)) {
+			return null;
+		}
+
+		final String name = type.getName() + "$$NeedleWriter$" + method.getName();
+		final ClassWriter writer = writer(name, BiConsumer.class);
+		final ClassWriter.Code code = accept(writer, type, parameterTypes[0])
+				.invokeVirtual(internalName(type), method.getName(),
+						descriptor(method.getReturnType(), parameterTypes));
+		if (method.getReturnType() != void.class) {
+			code.op(size(method.getReturnType()) == 2 ? POP2 : POP);
+		}
+		code.op(RETURN)
+				.maxs(2, 3);
+
+		return (BiConsumer<Object, Object>) define(method, writer, name, parameterTypes);
+	}
+
+	/**
+	 * Generate the writer of a field.
+	 * @param field The field
+	 * @return The writer, taking the target instance and the value, or null if
+	 *   the field is left to reflection
+	 */
+	@SuppressWarnings("unchecked")
+	static BiConsumer<Object, Object> generate(Field field) {
+		final Class<?> type = field.getDeclaringClass();
+		if ((field.getModifiers() & (Modifier.STATIC | Modifier.FINAL)) != 0 || field.getType().isPrimitive()) {
+			return null;
+		}
+
+		final String name = type.getName() + "$$NeedleWriter$" + field.getName();
+		final ClassWriter writer = writer(name, BiConsumer.class);
+		accept(writer, type, field.getType())
+				.putField(internalName(type), field.getName(), descriptor(field.getType()))
+				.op(RETURN)
+				.maxs(2, 3);
+
+		return (BiConsumer<Object, Object>) define(field, writer, name, field.getType());
+	}
+
+	/**
+	 * Start writing a generated class, with its empty constructor.
+	 * @param name The binary name of the class, in the package of the class
+	 *   declaring the generated member
+	 * @param function The implemented functional interface
+	 * @return The class writer
+	 */
+	private static ClassWriter writer(String name, Class<?> function) {
+		final ClassWriter writer = new ClassWriter(ACC_PUBLIC | ACC_FINAL,
+				name.replace('.', '/'), "java/lang/Object", internalName(function));
+		writer.method(ACC_PUBLIC, "<init>", "()V")
+				.op(ALOAD_0)
+				.invokeSpecial("java/lang/Object", "<init>", "()V")
+				.op(RETURN)
+				.maxs(1, 1);
+		return writer;
+	}
+
+	/**
+	 * Start writing the accept(target, value) method of a writer, loading the
+	 *   target and the value on the stack.
+	 * @param writer The class writer
+	 * @param host The class declaring the member
+	 * @param valueType The member type
+	 * @return The code writer
+	 */
+	private static ClassWriter.Code accept(ClassWriter writer, Class<?> host, Class<?> valueType) {
+		final ClassWriter.Code code = writer.method(ACC_PUBLIC, "accept", "(Ljava/lang/Object;Ljava/lang/Object;)V")
+				.op(ALOAD_1)
+				.checkCast(internalName(host))
+				.op(ALOAD_2);
+		return cast(code, valueType);
+	}
+
+	private static ClassWriter.Code cast(ClassWriter.Code code, Class<?> type) {
+		return type == Object.class ? code :
+				code.checkCast(type.isArray() ? descriptor(type) : internalName(type));
+	}
+
+	private static boolean isPublic(Class<?>... types) {
+		for (Class<?> type : types) {
+			while (type.isArray()) {
+				type = type.getComponentType();
+			}
+			if (!Modifier.isPublic(type.getModifiers())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean hasPrimitive(Class<?>[] types) {
+		for (Class<?> type : types) {
+			if (type.isPrimitive()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Define and instantiate a generated class : as a hidden nestmate of the
+	 *   class declaring the member if possible, else in its own class loader if
+	 *   the member and all the types it refers to are public.
+	 * @param member The generated member
+	 * @param writer The written class
+	 * @param name The binary name of the class
+	 * @param types The parameter types of the member, cast by the generated code
+	 * @return The instance of the generated class, or null if it cannot be defined
+	 */
+	private static Object define(Member member, ClassWriter writer, String name, Class<?>... types) {
+		final Class<?> host = member.getDeclaringClass();
+		final byte[] bytes = writer.toByteArray();
+		try {
+			final Class<?> generated;
+			if (DEFINE_HIDDEN_CLASS != null) {
+				final Object lookup = PRIVATE_LOOKUP_IN.invoke(null, host, MethodHandles.lookup());
+				generated = ((MethodHandles.Lookup) DEFINE_HIDDEN_CLASS.invoke(lookup, bytes, true, NESTMATE))
+						.lookupClass();
+			} else if (Modifier.isPublic(member.getModifiers()) && isPublic(host) && isPublic(types)) {
+				generated = ClassWriter.define(host.getClassLoader(), name, bytes);
+			} else {
+				return null;
+			}
+			return generated.getConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+			// The class cannot be opened to the container, or the member not reached : keep reflection
+			return null;
+		}
+	}
+}
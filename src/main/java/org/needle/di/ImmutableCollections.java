@@ -0,0 +1,132 @@
+package org.needle.di;
+
+import java.util.*;
+
+/**
+ * Compact immutable collections backed by plain arrays, used to inject the
+ *   contributions of a multibinding.
+ * Their content is never copied once built, and the list supports indexed
+ *   iteration, which allocates nothing.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class ImmutableCollections {
+
+	/**
+	 * An immutable list over an array.
+	 * @param <E> The type of the elements
+	 */
+	static final class ArrayBackedList<E> extends AbstractList<E> implements RandomAccess {
+
+		private final Object[] elements;
+
+		ArrayBackedList(Object[] elements) {
+			this.elements = elements;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public E get(int index) {
+			return (E) elements[index];
+		}
+
+		@Override
+		public int size() {
+			return elements.length;
+		}
+
+		@Override
+		public Object[] toArray() {
+			return elements.clone();
+		}
+	}
+
+	/**
+	 * An immutable set over an array of distinct elements, iterated in
+	 *   array order.
+	 * @param <E> The type of the elements
+	 */
+	static final class ArrayBackedSet<E> extends AbstractSet<E> {
+
+		private final List<E> elements;
+
+		ArrayBackedSet(Object[] elements) {
+			this.elements = new ArrayBackedList<>(elements);
+		}
+
+		@Override
+		public Iterator<E> iterator() {
+			return elements.iterator();
+		}
+
+		@Override
+		public int size() {
+			return elements.size();
+		}
+	}
+
+	/**
+	 * An immutable map over an array of distinct keys and an array of values,
+	 *   iterated in array order.
+	 * @param <V> The type of the values
+	 */
+	static final class ArrayBackedMap<V> extends AbstractMap<String, V> {
+
+		private final String[] keys;
+
+		private final Object[] values;
+
+		private final Set<Entry<String, V>> entries;
+
+		@SuppressWarnings("unchecked")
+		ArrayBackedMap(String[] keys, Object[] values) {
+			this.keys = keys;
+			this.values = values;
+
+			final Object[] entries = new Object[keys.length];
+			for (int i = 0; i < keys.length; i++) {
+				entries[i] = new SimpleImmutableEntry<>(keys[i], (V) values[i]);
+			}
+			this.entries = new ArrayBackedSet<>(entries);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V get(Object key) {
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i].equals(key)) {
+					return (V) values[i];
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			for (String k : keys) {
+				if (k.equals(key)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public Set<Entry<String, V>> entrySet() {
+			return entries;
+		}
+	}
+
+	private ImmutableCollections() {
+	}
+
+	/**
+	 * Drop the duplicate elements of an array, by equals, but the first one.
+	 * @param elements The elements
+	 * @return The distinct elements, in array order : the array itself if
+	 *   they are all distinct
+	 */
+	static Object[] distinct(Object[] elements) {
+		final Set<Object> distinct = new LinkedHashSet<>(Arrays.asList(elements));
+		return distinct.size() == elements.length ? elements : distinct.toArray();
+	}
+}
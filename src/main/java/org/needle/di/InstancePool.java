@@ -0,0 +1,164 @@
+package org.needle.di;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The idle instances of a pooled binding.
+ * A thread first looks in its own small cache, without any synchronization,
+ *   then in a bounded stack shared by all the threads. The shared stack is a
+ *   lock-free Treiber stack : a push or a pop is a single compare-and-set on
+ *   its head, retried if another thread changed it in between.
+ * The pool never blocks : a borrow on an empty pool is a miss, and the caller
+ *   builds a new instance, while a release on a full pool discards the instance.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class InstancePool {
+
+	/**
+	 * The number of idle instances kept by each thread
+	 */
+	static final int THREAD_CACHE_SIZE = 4;
+
+	/**
+	 * The default capacity of the shared stack
+	 */
+	static final int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * A cell of the shared stack.
+	 */
+	private static final class Node {
+
+		private final Object instance;
+
+		private final Node next;
+
+		private Node(Object instance, Node next) {
+			this.instance = instance;
+			this.next = next;
+		}
+	}
+
+	/**
+	 * The idle instances kept by a thread.
+	 */
+	private static final class ThreadCache {
+
+		private final Object[] instances = new Object[THREAD_CACHE_SIZE];
+
+		private int size;
+	}
+
+	/**
+	 * The maximum size of the shared stack
+	 */
+	private final int capacity;
+
+	/**
+	 * The head of the shared stack
+	 */
+	private final AtomicReference<Node> head = new AtomicReference<>();
+
+	/**
+	 * The size of the shared stack, reserved before a push
+	 */
+	private final AtomicInteger size = new AtomicInteger();
+
+	/**
+	 * The cache of each thread
+	 */
+	private final ThreadLocal<ThreadCache> caches = ThreadLocal.withInitial(ThreadCache::new);
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder releases = new LongAdder();
+
+	private final LongAdder discards = new LongAdder();
+
+	private final LongAdder contentions = new LongAdder();
+
+	/**
+	 * Create an empty pool.
+	 * @param capacity The maximum size of the shared stack
+	 */
+	InstancePool(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("The pool capacity cannot be negative : " + capacity);
+		}
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Take an idle instance.
+	 * @return The instance, or null if the pool is empty
+	 */
+	Object borrow() {
+		final ThreadCache cache = caches.get();
+		if (cache.size > 0) {
+			final Object instance = cache.instances[--cache.size];
+			cache.instances[cache.size] = null;
+			hits.increment();
+			return instance;
+		}
+
+		Node node = head.get();
+		while (node != null) {
+			if (head.compareAndSet(node, node.next)) {
+				size.decrementAndGet();
+				hits.increment();
+				return node.instance;
+			}
+			contentions.increment();
+			node = head.get();
+		}
+
+		misses.increment();
+		return null;
+	}
+
+	/**
+	 * Return an instance, already reset, to the pool.
+	 * @param instance The idle instance
+	 */
+	void release(Object instance) {
+		releases.increment();
+
+		final ThreadCache cache = caches.get();
+		if (cache.size < THREAD_CACHE_SIZE) {
+			cache.instances[cache.size++] = instance;
+			return;
+		}
+
+		if (size.incrementAndGet() > capacity) {
+			size.decrementAndGet();
+			discards.increment();
+			return;
+		}
+
+		Node node = head.get();
+		while (!head.compareAndSet(node, new Node(instance, node))) {
+			contentions.increment();
+			node = head.get();
+		}
+	}
+
+	/**
+	 * Record an instance dropped instead of being returned.
+	 */
+	void discard() {
+		discards.increment();
+	}
+
+	/**
+	 * Returns a snapshot of the pool activity.
+	 * @return The metrics
+	 */
+	PoolMetrics getMetrics() {
+		return new PoolMetrics(capacity, size.get(), hits.sum(), misses.sum(),
+				releases.sum(), discards.sum(), contentions.sum());
+	}
+}
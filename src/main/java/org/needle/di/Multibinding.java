@@ -0,0 +1,135 @@
+package org.needle.di;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * All the bindings contributed to a type in a container, which are injected
+ *   together in List, Set or Map injection points of the type. A Map only holds
+ *   the named contributions : the others are not even built for it.
+ * When all the contributions of a collection are singletons, it is built once,
+ *   then shared by all the injection points.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class Multibinding {
+
+	/**
+	 * The contributions, in declaration order
+	 */
+	private final Binding[] contributions;
+
+	/**
+	 * The names of the named contributions, which are the keys of the injected maps
+	 */
+	private final String[] names;
+
+	/**
+	 * The named contributions, in declaration order
+	 */
+	private final Binding[] named;
+
+	/**
+	 * Whether all the contributions are singletons
+	 */
+	private final boolean singleton;
+
+	/**
+	 * Whether all the named contributions are singletons
+	 */
+	private final boolean namedSingleton;
+
+	/**
+	 * The collections already built, by dependency kind, if all the contributions
+	 *   are singletons
+	 */
+	private final AtomicReferenceArray<Object> collections =
+			new AtomicReferenceArray<>(Dependency.Kind.values().length);
+
+	/**
+	 * Create a multibinding.
+	 * @param contributions The contributions, in declaration order
+	 */
+	Multibinding(List<Binding> contributions) {
+		this.contributions = contributions.toArray(new Binding[0]);
+
+		final List<Binding> named = new ArrayList<>();
+		boolean singleton = true;
+		boolean namedSingleton = true;
+		for (Binding contribution : this.contributions) {
+			final boolean single = contribution.getScope() == Scope.SINGLETON;
+			if (contribution.getName() != null) {
+				named.add(contribution);
+				namedSingleton &= single;
+			}
+			singleton &= single;
+		}
+		this.singleton = singleton;
+		this.namedSingleton = namedSingleton;
+		this.named = named.toArray(new Binding[0]);
+		this.names = named.stream().map(Binding::getName).toArray(String[]::new);
+	}
+
+	/**
+	 * Returns the contributions injected in a collection.
+	 * @param kind The dependency kind
+	 * @return The contributions, in declaration order : the named ones for a Map
+	 */
+	Binding[] getContributions(Dependency.Kind kind) {
+		return kind == Dependency.Kind.MAP ? named : contributions;
+	}
+
+	/**
+	 * Returns the collection already built for a dependency kind.
+	 * @param kind The dependency kind
+	 * @return The collection, or null if it must be built
+	 */
+	Object getCollection(Dependency.Kind kind) {
+		return collections.get(kind.ordinal());
+	}
+
+	/**
+	 * Wrap the contributed instances into the collection matching a dependency kind,
+	 *   and keep it if all its contributions are singletons. The duplicate
+	 *   instances of a Set, by equals, are dropped but the first one.
+	 * @param kind The dependency kind
+	 * @param instances The instances of the contributions of the kind, in declaration order
+	 * @return The collection to inject
+	 * @see Multibinding#getContributions(Dependency.Kind)
+	 */
+	Object toCollection(Dependency.Kind kind, Object[] instances) {
+		final Object collection;
+		switch (kind) {
+			case LIST:
+				collection = new ImmutableCollections.ArrayBackedList<>(instances);
+				break;
+			case SET:
+				collection = new ImmutableCollections.ArrayBackedSet<>(ImmutableCollections.distinct(instances));
+				break;
+			default:
+				collection = new ImmutableCollections.ArrayBackedMap<>(names, instances);
+		}
+
+		if (kind == Dependency.Kind.MAP ? namedSingleton : singleton) {
+			collections.set(kind.ordinal(), collection);
+		}
+		return collection;
+	}
+
+	/**
+	 * Returns the empty collection matching a dependency kind.
+	 * @param kind The dependency kind
+	 * @return The empty collection
+	 */
+	static Object empty(Dependency.Kind kind) {
+		switch (kind) {
+			case LIST:
+				return Collections.emptyList();
+			case SET:
+				return Collections.emptySet();
+			default:
+				return Collections.emptyMap();
+		}
+	}
+}
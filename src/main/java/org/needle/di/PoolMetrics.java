@@ -0,0 +1,109 @@
+package org.needle.di;
+
+/**
+ * A snapshot of the activity of the pool of a pooled binding, to tune its capacity.
+ * @see Container#getPoolMetrics(Class)
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public final class PoolMetrics {
+
+	private final int capacity;
+
+	private final int size;
+
+	private final long hits;
+
+	private final long misses;
+
+	private final long releases;
+
+	private final long discards;
+
+	private final long contentions;
+
+	PoolMetrics(int capacity, int size, long hits, long misses, long releases,
+			long discards, long contentions) {
+		this.capacity = capacity;
+		this.size = size;
+		this.hits = hits;
+		this.misses = misses;
+		this.releases = releases;
+		this.discards = discards;
+		this.contentions = contentions;
+	}
+
+	/**
+	 * Returns the capacity of the shared stack of the pool.
+	 * @return The maximum number of idle instances shared between threads
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of idle instances in the shared stack of the pool,
+	 *   not counting the ones held by the per-thread caches.
+	 * @return The shared stack size
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of borrows served by an idle instance.
+	 * @return The hit count
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of borrows that found the pool empty, and built a new instance.
+	 * @return The miss count
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Returns the number of instances reset and returned to the pool.
+	 * @return The release count
+	 */
+	public long getReleases() {
+		return releases;
+	}
+
+	/**
+	 * Returns the number of returned instances dropped, because the pool was
+	 *   full or their reset has failed.
+	 * @return The discard count
+	 */
+	public long getDiscards() {
+		return discards;
+	}
+
+	/**
+	 * Returns the number of times a thread had to retry an operation on the
+	 *   shared stack, because another thread changed it concurrently. The pool
+	 *   is lock-free : retries are the only time a thread waits for the others.
+	 * @return The contention count
+	 */
+	public long getContentions() {
+		return contentions;
+	}
+
+	/**
+	 * Returns the proportion of borrows served by an idle instance.
+	 * @return The hit ratio, between 0 and 1, or 0 if nothing was borrowed
+	 */
+	public double getHitRatio() {
+		final long borrows = hits + misses;
+		return borrows == 0 ? 0 : (double) hits / borrows;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("PoolMetrics[capacity=%d, size=%d, hits=%d, misses=%d, releases=%d, discards=%d, contentions=%d]",
+				capacity, size, hits, misses, releases, discards, contentions);
+	}
+}
@@ -0,0 +1,450 @@
+package org.needle.di;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A .properties file, read at once into memory.
+ * Loading the file scans it once and indexes the position of each key and value
+ *   in its bytes, without creating any String. A value is decoded only
+ *   when its key is looked up, which is when a @Resolve member consumes it, and
+ *   is then kept.
+ * The syntax is the one of java.util.Properties, with the ISO-8859-1 encoding :
+ *   comments, ':' or '=' or blank separators, escapes and line continuations.
+ * A source is immutable : a change in the file is read by loading a new source,
+ *   even if the file is rewritten in place, since the source keeps its own copy
+ *   of the bytes.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class PropertiesSource {
+
+	/**
+	 * The file
+	 */
+	private final Path path;
+
+	/**
+	 * The content of the file, as read when the source was loaded
+	 */
+	private final byte[] content;
+
+	/**
+	 * The number of entries
+	 */
+	private int size;
+
+	/**
+	 * The positions of the keys and the values of each entry, in the content :
+	 *   key start, key end, value start, value end.
+	 */
+	private int[] positions = new int[64];
+
+	/**
+	 * The hash code of the key of each entry, as String.hashCode() computes it
+	 */
+	private int[] hashes = new int[16];
+
+	/**
+	 * The decoded key of each entry whose key has escapes, else null
+	 */
+	private String[] escapedKeys = new String[16];
+
+	/**
+	 * Whether the value of each entry has escapes
+	 */
+	private boolean[] escapedValues = new boolean[16];
+
+	/**
+	 * The open-addressing table of the entries, by key hash : entry index + 1, or 0
+	 */
+	private final int[] table;
+
+	/**
+	 * The decoded values, once looked up
+	 */
+	private final AtomicReferenceArray<String> values;
+
+	/**
+	 * The decoded keys of the looked up values, so that a key already consumed
+	 *   is found again without comparing its bytes
+	 */
+	private final AtomicReferenceArray<String> keys;
+
+	/**
+	 * The number of decoded values
+	 */
+	private final AtomicInteger materialized = new AtomicInteger();
+
+	/**
+	 * Read a properties file and index its entries. The file is copied at once,
+	 *   rather than mapped, so that the lookups never read a file modified since.
+	 * @param path The file
+	 * @return The source
+	 * @throws IOException If the file cannot be read
+	 * @throws IllegalArgumentException If the file contains a malformed unicode
+	 *   escape, as java.util.Properties reports it
+	 */
+	static PropertiesSource load(Path path) throws IOException {
+		return new PropertiesSource(path, Files.readAllBytes(path));
+	}
+
+	/**
+	 * Index the entries of a properties file.
+	 * @param path The file
+	 * @param content The content of the file
+	 */
+	private PropertiesSource(Path path, byte[] content) {
+		this.path = path;
+		this.content = content;
+		scan();
+
+		this.keys = new AtomicReferenceArray<>(size);
+		int capacity = 16;
+		while (capacity < size * 2) {
+			capacity <<= 1;
+		}
+		this.table = new int[capacity];
+		// A key repeated later in the file overrides the previous one
+		for (int entry = 0; entry < size; entry++) {
+			int slot = hashes[entry] & (capacity - 1);
+			while (table[slot] != 0 && !sameKey(table[slot] - 1, entry)) {
+				slot = (slot + 1) & (capacity - 1);
+			}
+			table[slot] = entry + 1;
+		}
+		this.values = new AtomicReferenceArray<>(size);
+	}
+
+	/**
+	 * Returns the file of the source.
+	 * @return The file path
+	 */
+	Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Indicates whether the file defines a key.
+	 * @param key The property key
+	 * @return true if the key is defined
+	 */
+	boolean contains(String key) {
+		return find(key) >= 0;
+	}
+
+	/**
+	 * Returns the value of a key, decoding it on first call.
+	 * @param key The property key
+	 * @return The value, or null if the key is not defined
+	 */
+	String get(String key) {
+		final int entry = find(key);
+		if (entry < 0) {
+			return null;
+		}
+
+		String value = values.get(entry);
+		if (value == null) {
+			value = decode(positions[entry * 4 + 2], positions[entry * 4 + 3], escapedValues[entry]);
+			keys.compareAndSet(entry, null, key);
+			if (values.compareAndSet(entry, null, value)) {
+				materialized.incrementAndGet();
+			} else {
+				value = values.get(entry);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Decode all the entries of the file.
+	 * @return The properties, in file order
+	 */
+	Map<String, String> toMap() {
+		final Map<String, String> map = new LinkedHashMap<>();
+		for (int entry = 0; entry < size; entry++) {
+			final String key = key(entry);
+			map.put(key, get(key));
+		}
+		return map;
+	}
+
+	/**
+	 * Returns the number of values decoded so far.
+	 * @return The number of decoded values
+	 */
+	int getMaterialized() {
+		return materialized.get();
+	}
+
+	/**
+	 * Returns the number of entries of the file, including the repeated keys.
+	 * @return The number of entries
+	 */
+	int getSize() {
+		return size;
+	}
+
+	/**
+	 * Find the entry of a key.
+	 * @param key The property key
+	 * @return The entry index, or -1 if the key is not defined
+	 */
+	private int find(String key) {
+		final int hash = key.hashCode();
+		final int mask = table.length - 1;
+
+		for (int slot = hash & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+			final int entry = table[slot] - 1;
+			if (hashes[entry] == hash && keyEquals(entry, key)) {
+				return entry;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Compare the key of an entry with a String, without decoding it.
+	 * @param entry The entry index
+	 * @param key The key
+	 * @return true if the entry has this key
+	 */
+	private boolean keyEquals(int entry, String key) {
+		if (escapedKeys[entry] != null) {
+			return escapedKeys[entry].equals(key);
+		}
+		final String decoded = keys.get(entry);
+		if (decoded != null) {
+			return decoded.equals(key);
+		}
+
+		final int start = positions[entry * 4];
+		final int end = positions[entry * 4 + 1];
+		if (end - start != key.length()) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if ((content[i] & 0xff) != key.charAt(i - start)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compare the keys of two entries.
+	 * @param entry An entry index
+	 * @param other Another entry index
+	 * @return true if the entries have the same key
+	 */
+	private boolean sameKey(int entry, int other) {
+		return hashes[entry] == hashes[other] && keyEquals(entry, key(other));
+	}
+
+	/**
+	 * Decode the key of an entry.
+	 * @param entry The entry index
+	 * @return The key
+	 */
+	private String key(int entry) {
+		return escapedKeys[entry] != null ? escapedKeys[entry] :
+				decode(positions[entry * 4], positions[entry * 4 + 1], false);
+	}
+
+	/**
+	 * Scan the content and record the position of each entry.
+	 */
+	private void scan() {
+		final int limit = content.length;
+		int i = 0;
+
+		while (i < limit) {
+			// Leading blanks of a line
+			while (i < limit && isBlank(content[i])) {
+				i++;
+			}
+			if (i >= limit) {
+				break;
+			}
+
+			byte b = content[i];
+			if (b == '\n' || b == '\r') {
+				i++;
+				continue;
+			}
+			if (b == '#' || b == '!') {
+				while (i < limit && content[i] != '\n' && content[i] != '\r') {
+					i++;
+				}
+				continue;
+			}
+
+			// Key, up to an unescaped separator or the end of the logical line
+			final int keyStart = i;
+			boolean keyEscaped = false;
+			int hash = 0;
+			while (i < limit) {
+				b = content[i];
+				if (b == '\\') {
+					keyEscaped = true;
+					i = skipEscape(i, limit);
+					continue;
+				}
+				if (b == '=' || b == ':' || isBlank(b) || b == '\n' || b == '\r') {
+					break;
+				}
+				hash = 31 * hash + (b & 0xff);
+				i++;
+			}
+			final int keyEnd = i;
+
+			// Separator : blanks, then at most one '=' or ':', then blanks
+			while (i < limit && isBlank(content[i])) {
+				i++;
+			}
+			if (i < limit && (content[i] == '=' || content[i] == ':')) {
+				i++;
+				while (i < limit && isBlank(content[i])) {
+					i++;
+				}
+			}
+
+			// Value, up to the end of the logical line
+			final int valueStart = i;
+			boolean valueEscaped = false;
+			while (i < limit) {
+				b = content[i];
+				if (b == '\\') {
+					valueEscaped = true;
+					i = skipEscape(i, limit);
+					continue;
+				}
+				if (b == '\n' || b == '\r') {
+					break;
+				}
+				i++;
+			}
+
+			String escapedKey = null;
+			if (keyEscaped) {
+				escapedKey = decode(keyStart, keyEnd, true);
+				hash = escapedKey.hashCode();
+			}
+			add(keyStart, keyEnd, valueStart, i, hash, escapedKey, valueEscaped);
+		}
+	}
+
+	/**
+	 * Skip an escape sequence, including a line continuation and the leading
+	 *   blanks of the next line, or the four hexadecimal digits of a unicode escape.
+	 * @param i The position of the backslash
+	 * @param limit The end of the content
+	 * @return The position following the escape sequence
+	 * @throws IllegalArgumentException If a unicode escape is malformed
+	 */
+	private int skipEscape(int i, int limit) {
+		i++;
+		if (i >= limit) {
+			return i;
+		}
+
+		final byte b = content[i++];
+		if (b == 'u') {
+			for (int digit = 0; digit < 4; digit++, i++) {
+				if (i >= limit || Character.digit((char) (content[i] & 0xff), 16) < 0) {
+					throw new IllegalArgumentException("Malformed \\uxxxx encoding in " + path);
+				}
+			}
+		} else if (b == '\r' || b == '\n') {
+			if (b == '\r' && i < limit && content[i] == '\n') {
+				i++;
+			}
+			while (i < limit && isBlank(content[i])) {
+				i++;
+			}
+		}
+		return i;
+	}
+
+	/**
+	 * Record an entry.
+	 */
+	private void add(int keyStart, int keyEnd, int valueStart, int valueEnd,
+			int hash, String escapedKey, boolean valueEscaped) {
+		if (size == hashes.length) {
+			positions = Arrays.copyOf(positions, size * 8);
+			hashes = Arrays.copyOf(hashes, size * 2);
+			escapedKeys = Arrays.copyOf(escapedKeys, size * 2);
+			escapedValues = Arrays.copyOf(escapedValues, size * 2);
+		}
+		positions[size * 4] = keyStart;
+		positions[size * 4 + 1] = keyEnd;
+		positions[size * 4 + 2] = valueStart;
+		positions[size * 4 + 3] = valueEnd;
+		hashes[size] = hash;
+		escapedKeys[size] = escapedKey;
+		escapedValues[size] = valueEscaped;
+		size++;
+	}
+
+	/**
+	 * Decode a key or a value.
+	 * @param start The first byte
+	 * @param end The byte following the last one
+	 * @param escaped Whether the bytes contain escape sequences
+	 * @return The decoded text
+	 */
+	private String decode(int start, int end, boolean escaped) {
+		if (!escaped) {
+			return new String(content, start, end - start, StandardCharsets.ISO_8859_1);
+		}
+		final byte[] bytes = Arrays.copyOfRange(content, start, end);
+
+		final StringBuilder text = new StringBuilder(bytes.length);
+		for (int i = 0; i < bytes.length; i++) {
+			final char c = (char) (bytes[i] & 0xff);
+			if (c != '\\' || i + 1 >= bytes.length) {
+				text.append(c);
+				continue;
+			}
+
+			final char next = (char) (bytes[++i] & 0xff);
+			switch (next) {
+				case 't': text.append('\t'); break;
+				case 'n': text.append('\n'); break;
+				case 'r': text.append('\r'); break;
+				case 'f': text.append('\f'); break;
+				case 'u':
+					// Validated by the scan
+					text.append((char) Integer.parseInt(
+							new String(bytes, i + 1, 4, StandardCharsets.ISO_8859_1), 16));
+					i += 4;
+					break;
+				case '\r':
+				case '\n':
+					// Line continuation : skip the line break and the leading blanks
+					if (next == '\r' && i + 1 < bytes.length && bytes[i + 1] == '\n') {
+						i++;
+					}
+					while (i + 1 < bytes.length && isBlank(bytes[i + 1])) {
+						i++;
+					}
+					break;
+				default:
+					text.append(next);
+			}
+		}
+		return text.toString();
+	}
+
+	private static boolean isBlank(byte b) {
+		return b == ' ' || b == '\t' || b == '\f';
+	}
+}
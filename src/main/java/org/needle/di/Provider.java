@@ -0,0 +1,89 @@
+package org.needle.di;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * A @Service annotated factory method of a module, which provides the
+ *   instances of its return type.
+ * The method is resolved once, when the module is installed, into a
+ *   MethodHandle bound to the module instance, so that providing an instance
+ *   is a direct invocation.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class Provider {
+
+	/**
+	 * The factory method
+	 */
+	private final Method method;
+
+	/**
+	 * The services to inject in the method arguments
+	 */
+	private final Dependency[] parameters;
+
+	/**
+	 * The method bound to its module, taking its arguments as an Object[]
+	 *   and returning an Object.
+	 */
+	private final MethodHandle handle;
+
+	/**
+	 * Create the provider of a factory method.
+	 * @param module The module instance, ignored for a static method
+	 * @param method The factory method
+	 * @throws IllegalAccessException The method cannot be made accessible
+	 */
+	Provider(Object module, Method method) throws IllegalAccessException {
+		this.method = method;
+		this.parameters = Dependency.of(method.getParameterTypes(), method.getGenericParameterTypes(),
+				method.getParameterAnnotations());
+
+		method.setAccessible(true);
+		MethodHandle handle = MethodHandles.lookup().unreflect(method);
+		if (!Modifier.isStatic(method.getModifiers())) {
+			handle = handle.bindTo(module);
+		}
+		this.handle = handle
+				.asSpreader(Object[].class, parameters.length)
+				.asType(MethodType.methodType(Object.class, Object[].class));
+	}
+
+	/**
+	 * Returns the type of the provided instances.
+	 * @return The factory method return type
+	 */
+	Class<?> getType() {
+		return method.getReturnType();
+	}
+
+	/**
+	 * Returns the factory method, for error reporting.
+	 * @return The factory method
+	 */
+	Method getMethod() {
+		return method;
+	}
+
+	/**
+	 * Returns the services to inject in the method arguments.
+	 * @return The argument dependencies
+	 */
+	Dependency[] getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * Invoke the factory method.
+	 * @param args The method arguments
+	 * @return The provided instance
+	 * @throws Throwable The factory method has thrown an exception
+	 */
+	Object provide(Object[] args) throws Throwable {
+		return (Object) handle.invokeExact(args);
+	}
+}
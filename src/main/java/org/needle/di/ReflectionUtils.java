@@ -4,6 +4,8 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -27,26 +29,56 @@ public class ReflectionUtils {
 	}
 	
 	/**
-	 * Indicate whether the given method is a setter.
+	 * Indicate whether the given method is a setter. The matching field may be
+	 *   declared by the class or by one of its superclasses.
 	 * @param method The method to check
 	 * @return true if the method is a setter of given class, false else.
 	 */
 	public static boolean isSetter(Class clazz, Method method) {
+		final String fieldName = getMemberNameFromSetter(method.getName());
+
+		for (Class<?> type = clazz; type != null; type = type.getSuperclass()) {
+			try {
+				final Field field = type.getDeclaredField(fieldName);
+
+				return method.getReturnType().equals(Void.TYPE) &&
+						method.getParameterCount() == 1 &&
+						method.getParameterTypes()[0].isAssignableFrom(
+								field.getType());
+
+			} catch (NoSuchFieldException e) {
+				// Let's look for the field in the superclass
+			}
+		}
+		return false;
+	}
+	
+	
+	/**
+	 * Indicates whether the method is overridden by a method declared in the
+	 *   given subclass.
+	 * @param method The method of a superclass
+	 * @param subclass The class that may override the method
+	 * @return true if subclass declares a method overriding the given one
+	 */
+	public static boolean isOverridden(Method method, Class<?> subclass) {
+		final int modifiers = method.getModifiers();
+		if (Modifier.isPrivate(modifiers) || Modifier.isStatic(modifiers)) {
+			return false;
+		}
+
 		try {
-			final String fieldName = getMemberNameFromSetter(method.getName());
-			final Field field = clazz.getDeclaredField(fieldName);
-				
-			return method.getReturnType().equals(Void.TYPE) &&
-					method.getParameterCount() == 1 &&
-					method.getParameterTypes()[0].isAssignableFrom(
-							field.getType());
-			
-		} catch (NoSuchFieldException e) {
+			final Method candidate = subclass.getDeclaredMethod(
+					method.getName(), method.getParameterTypes());
+
+			return !Modifier.isStatic(candidate.getModifiers()) &&
+					(Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers) ||
+					 Objects.equals(method.getDeclaringClass().getPackage(), subclass.getPackage()));
+		} catch (NoSuchMethodException e) {
 			return false;
 		}
 	}
 	
-	
 	/**
 	 * Indicates whether the element is annotated by at least
 	 *   one of the annotations type provided in arguments
@@ -61,6 +93,53 @@ public class ReflectionUtils {
 				.anyMatch(element::isAnnotationPresent);
 	}
 	
+	/**
+	 * Convert the text of a value, such as a default configuration value, to a type.
+	 *   The text is trimmed, unless the type is String.
+	 * @param text The text of the value
+	 * @param type The target type : String, a primitive type or its wrapper, or an enum
+	 * @return The converted value
+	 * @throws IllegalArgumentException If the text cannot be converted to the type
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static Object parseValue(String text, Class<?> type) {
+		if (type == String.class || type == Object.class || type == CharSequence.class) {
+			return text;
+		}
+		text = text.trim();
+		if (type == Integer.class || type == int.class) {
+			return Integer.valueOf(text);
+		}
+		if (type == Long.class || type == long.class) {
+			return Long.valueOf(text);
+		}
+		if (type == Boolean.class || type == boolean.class) {
+			if (!"true".equalsIgnoreCase(text) && !"false".equalsIgnoreCase(text)) {
+				throw new IllegalArgumentException("Not a boolean : " + text);
+			}
+			return Boolean.valueOf(text);
+		}
+		if (type == Double.class || type == double.class) {
+			return Double.valueOf(text);
+		}
+		if (type == Float.class || type == float.class) {
+			return Float.valueOf(text);
+		}
+		if (type == Short.class || type == short.class) {
+			return Short.valueOf(text);
+		}
+		if (type == Byte.class || type == byte.class) {
+			return Byte.valueOf(text);
+		}
+		if ((type == Character.class || type == char.class) && text.length() == 1) {
+			return text.charAt(0);
+		}
+		if (type.isEnum()) {
+			return Enum.valueOf((Class<Enum>) type, text);
+		}
+		throw new IllegalArgumentException("Cannot convert \"" + text + "\" to " + type.getName());
+	}
+
 	/**
 	 * Describe a method from its representation, giving its
 	 *   name and the list of the arguments types.
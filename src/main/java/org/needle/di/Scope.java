@@ -0,0 +1,33 @@
+package org.needle.di;
+
+/**
+ * The scope of a binding, which tells how often the bound type is
+ *   instantiated by a container.
+ * @see Container.Binder#in(Scope)
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public enum Scope {
+
+	/**
+	 * A new instance is built each time the type is injected.
+	 */
+	PROTOTYPE,
+
+	/**
+	 * A single instance is built by the container, the first time the type
+	 *   is injected, and shared by all the injection points.
+	 */
+	SINGLETON,
+
+	/**
+	 * Within a ServiceScope, an idle instance is borrowed from a bounded pool
+	 *   each time the type is injected, and returned to the pool, after its
+	 *   @Reset method is called, when the scope is closed. Outside of a scope,
+	 *   a new instance is built each time, as for a prototype, and so is it for
+	 *   the dependencies of a singleton, which outlive the scope, and for the
+	 *   dependencies of a pooled instance, which go back to the pool with it.
+	 * @see Container#openScope()
+	 * @see Container.Binder#pooled(int)
+	 */
+	POOLED
+}
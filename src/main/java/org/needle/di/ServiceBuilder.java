@@ -1,16 +1,9 @@
 package org.needle.di;
 
-import org.needle.di.annotations.Inject;
-import org.needle.di.annotations.Resolve;
-import org.needle.di.annotations.Service;
 import org.needle.di.exceptions.CyclicDependencyException;
 import org.needle.di.exceptions.InjectionException;
 import org.needle.di.exceptions.NestedInjectionException;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
 import java.util.*;
 
 import static org.needle.di.exceptions.InjectionException.*;
@@ -19,9 +12,12 @@ import static org.needle.di.exceptions.InjectionException.*;
  * Builder class for building classes instances, resolving and injecting recursively 
  *   all dependencies instances.
  * ServiceBuilder<T> class can be use for every Class<T>, provided that 
- *   it has @Service annotation on its definition.
+ *   it has @Service annotation on its definition, that it is bound to an
+ *   implementation in the builder container, or that a @Service method
+ *   of a module installed in the container provides it.
  * ServiceBuilder<T> scans, in this order, all constructors, setters and fields marked by the @Inject
- *   annotation, and tries to build nested dependencies instances.
+ *   annotation, and tries to build nested dependencies instances. Setters and fields
+ *   declared in superclasses are injected before the ones of the class itself.
  * @param <T> The type of the class built by the ServiceBuilder
  * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
  */
@@ -91,14 +87,79 @@ public class ServiceBuilder<T> implements Builder<T, InjectionException> {
             return builder;
         }
     }
+
+	/**
+	 * A singleton or a pooled instance in construction, and the proxies of the
+	 *   instances in construction it may hold.
+	 * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+	 */
+	private static final class Holder {
+
+		/**
+		 * The binding of the instance
+		 */
+		private final Binding binding;
+
+		/**
+		 * The position of the instance class in the dependencies path
+		 */
+		private final int depth;
+
+		/**
+		 * The references of the proxies injected in the instance or its
+		 *   dependencies, or null if none
+		 */
+		private Set<CycleProxy.Reference> proxies;
+
+		/**
+		 * The built singleton, while it waits for its proxies to be resolved
+		 */
+		private Object instance;
+
+		private Holder(Binding binding, int depth) {
+			this.binding = binding;
+			this.depth = depth;
+		}
+
+		/**
+		 * Record a proxy that the instance may hold.
+		 * @param reference The reference of the proxy
+		 */
+		private void hold(CycleProxy.Reference reference) {
+			if (proxies == null) {
+				proxies = Collections.newSetFromMap(new IdentityHashMap<>());
+			}
+			proxies.add(reference);
+		}
+
+		/**
+		 * Indicates whether a proxy held by the instance is not resolved yet.
+		 * @return true if the instance cannot be used outside of the build yet
+		 */
+		private boolean isWaiting() {
+			if (proxies != null) {
+				proxies.removeIf(CycleProxy.Reference::isResolved);
+			}
+			return proxies != null && !proxies.isEmpty();
+		}
+	}
 	
+	/**
+	 * The system property setting the number of builds of a class after which
+	 *   its construction is generated as dedicated classes instead of reflective
+	 *   calls : 1000 by default, 0 to generate them on the first build, and a
+	 *   negative number to never generate them
+	 */
+	public static final String FACTORY_THRESHOLD_PROPERTY = "needle.factory.threshold";
+
 	/**
 	 * The class of the instance we are attempting to build
 	 */
 	private Class<T> baseClass;
 	
 	/**
-	 * The set of dependencies we have already built
+	 * The dependencies currently in construction, from the base class
+	 *   to the deepest nested one.
 	 */
 	private Set<Class<?>> dependencies;
 	
@@ -106,6 +167,83 @@ public class ServiceBuilder<T> implements Builder<T, InjectionException> {
 	 * The configuration of the injector 
 	 */
 	private Map<String, Object> configuration;
+
+	/**
+	 * The container the builder is bound to
+	 */
+	private final Container container;
+
+	/**
+	 * The container configuration snapshot taken when the current build started,
+	 *   so that a build never mixes two configurations.
+	 */
+	private Map<String, Object> snapshot;
+
+	/**
+	 * The configuration keys injected by the current build, registered in the
+	 *   container once the root instance is built.
+	 */
+	private final List<ConfigurationIndex.Consumer> consumed = new ArrayList<>();
+
+	/**
+	 * The configuration keys injected in the singletons built by the current
+	 *   build, and in their dependencies : they are registered even if the build
+	 *   fails, since the singletons stay cached in the container.
+	 */
+	private final List<ConfigurationIndex.Consumer> escaped = new ArrayList<>();
+
+	/**
+	 * The graph recorder of the container, or null if the container does not record
+	 */
+	private final ServiceGraph.Recorder recorder;
+
+	/**
+	 * The scope in which pooled instances are borrowed, or null outside of a scope
+	 */
+	private final ServiceScope scope;
+
+	/**
+	 * The class in construction, or null between two builds
+	 */
+	private Class<?> current;
+
+	/**
+	 * The injection point of the class in construction being resolved, only
+	 *   described when the graph is recorded
+	 */
+	private String injectionPoint;
+
+	/**
+	 * The time spent constructing the dependencies of the class in construction,
+	 *   when the graph is recorded
+	 */
+	private long dependenciesTime;
+
+	/**
+	 * The references of the proxies injected at the back edge of a cycle, by
+	 *   class in construction, or null if no cycle has been resolved
+	 */
+	private Map<Class<?>, CycleProxy.Reference> references;
+
+	/**
+	 * The singletons and pooled instances in construction, from the outermost :
+	 *   their pooled dependencies are created unpooled, since the singletons
+	 *   outlive the scope, and the pooled instances are returned to their pool
+	 *   holding them. The configuration consumed by their dependencies is recorded.
+	 */
+	private final List<Holder> holders = new ArrayList<>();
+
+	/**
+	 * Whether the configuration consumed by the prototypes is recorded : the
+	 *   container reconfigures them, and the builder does not throw them away
+	 */
+	private boolean recordingPrototypes;
+
+	/**
+	 * The singletons built by the current build that hold a proxy not resolved
+	 *   yet, cached once it is, or null if none
+	 */
+	private Map<Binding, Holder> pending;
 	
 	/**
 	 * Returns a Configurator instance for the current builder.
@@ -136,15 +274,46 @@ public class ServiceBuilder<T> implements Builder<T, InjectionException> {
 	}
 
 	/**
-	 * Returns an instance of a builder for the class baseClass
-	 * @param <T> type of the instance to build
-	 * @param baseClass Class of the instance to build
-	 * @param parent The parent ServiceBuilder
-	 * @return The ServiceBuilder instance
+	 * Build n instances of the class type, with an empty configuration.
+	 * @param <T> type of the instances to build
+	 * @param type Class of the instances to build
+	 * @param n The number of instances to build
+	 * @return The list of the built instances
+	 * @throws InjectionException An error has occurred during the instantiation or dependency injection process
+	 * @see ServiceBuilder#buildMany(int)
 	 */
-	private static <T> ServiceBuilder<T> instance(
-			Class<T> baseClass, ServiceBuilder<?> parent) {
-		return new ServiceBuilder<>(baseClass, parent);
+	public static <T> List<T> buildMany(Class<T> type, int n) throws InjectionException {
+		return instance(type).buildMany(n);
+	}
+
+	/**
+	 * Build one instance of each given class, with an empty configuration.
+	 * @param types The classes of the instances to build
+	 * @return The built instances, mapped by their class, in the iteration order of types
+	 * @throws InjectionException An error has occurred during the instantiation or dependency injection process
+	 */
+	public static Map<Class<?>, Object> buildAll(Collection<Class<?>> types) throws InjectionException {
+		return buildAll(types, Collections.emptyMap());
+	}
+
+	/**
+	 * Build one instance of each given class, all of them sharing the provided
+	 *   configuration.
+	 * @param types The classes of the instances to build
+	 * @param configuration The map that contains configuration
+	 * @return The built instances, mapped by their class, in the iteration order of types
+	 * @throws InjectionException An error has occurred during the instantiation or dependency injection process
+	 */
+	public static Map<Class<?>, Object> buildAll(Collection<Class<?>> types,
+			Map<String, ?> configuration) throws InjectionException {
+		final ServiceBuilder<Object> builder = new ServiceBuilder<>(Object.class);
+		builder.getConfiguration().putAll(configuration);
+
+		final Map<Class<?>, Object> instances = new LinkedHashMap<>(types.size() * 2);
+		for (Class<?> type : types) {
+			instances.put(type, builder.build(ServicePlan.of(type)));
+		}
+		return instances;
 	}
 	
 	/**
@@ -152,22 +321,50 @@ public class ServiceBuilder<T> implements Builder<T, InjectionException> {
 	 * @param baseClass Class of the instance to build
 	 */
 	private ServiceBuilder(Class<T> baseClass) {
-		this.baseClass = baseClass;
-		this.dependencies = new HashSet<>();
-		this.configuration = new HashMap<>();
+		this(baseClass, Container.EMPTY);
 	}
-	
+
 	/**
-	 * Create a builder for the class baseClass,
-	 * with the parent configuration and dependencies set.
+	 * Create a builder for the class baseClass, bound to a container.
+	 * This method is internal and should not be called directly.
 	 * @param baseClass Class of the instance to build
-	 * @param parent The parent ServiceBuilder, that has called this constructor
-	 *   for resolving a dependency
+	 * @param container The container that provides shared services
+	 * @see Container#instance(Class)
 	 */
-	private ServiceBuilder(Class<T> baseClass, ServiceBuilder<?> parent) {
+	ServiceBuilder(Class<T> baseClass, Container container) {
+		this(baseClass, container, null);
+	}
+
+	/**
+	 * Create a builder for the class baseClass, bound to a container, that
+	 *   borrows the instances of pooled bindings in a scope.
+	 * This method is internal and should not be called directly.
+	 * @param baseClass Class of the instance to build
+	 * @param container The container that provides shared services
+	 * @param scope The scope of the pooled instances, or null
+	 * @see ServiceScope#get(Class)
+	 */
+	ServiceBuilder(Class<T> baseClass, Container container, ServiceScope scope) {
 		this.baseClass = baseClass;
-		this.dependencies = parent.dependencies;
-		this.configuration = parent.getConfiguration();
+		this.container = container;
+		this.scope = scope;
+		this.recorder = container.getRecorder();
+		this.recordingPrototypes = container.isReconfiguringPrototypes();
+		this.dependencies = new LinkedHashSet<>();
+		this.configuration = new HashMap<>();
+	}
+
+	/**
+	 * Make the builder build instances that are thrown away, for the warm-up :
+	 *   the configuration they consume is not recorded, but the one consumed by
+	 *   the singletons they create.
+	 * This method is internal and should not be called directly.
+	 * @return The current builder
+	 * @see Container#warmUp(int, Class...)
+	 */
+	ServiceBuilder<T> throwaway() {
+		this.recordingPrototypes = false;
+		return this;
 	}
 
 	/**
@@ -182,210 +379,698 @@ public class ServiceBuilder<T> implements Builder<T, InjectionException> {
 	/**
 	 * Active method of the builder that examine the class baseClass, scan all
 	 *   its fields, setters and constructors and create the instance, with its dependencies resolved if possible.
+	 * If the base class is bound in the builder container, the instance is created
+	 *   according to the binding.
 	 * @throws InjectionException An error has occurred during the instantiation or dependency injection process
 	 */
+	@SuppressWarnings("unchecked")
 	public T build() throws InjectionException {
-		T target = this.injectByConstructor();
-		this.injectBySetters(target);		
-		this.injectByFields(target);
-	
-		return target;
+		final Binding binding = container.getBinding(baseClass);
+		if (binding != null) {
+			return (T) build(binding);
+		}
+		return build(ServicePlan.of(baseClass));
+	}
+
+	/**
+	 * Try to build an instance of the base class, as build() does, for the callers
+	 *   that probe an optional service and handle its absence without an exception.
+	 * The dependencies are checked first, so that a missing service or property
+	 *   is reported without building any exception.
+	 * @return The instance, or an empty Optional if the instance cannot be built
+	 * @see ServiceBuilder#build()
+	 */
+	public Optional<T> tryBuild() {
+		if (!isSatisfiable(container.getBinding(baseClass), baseClass, new HashSet<>())) {
+			return Optional.empty();
+		}
+		try {
+			return Optional.of(build());
+		} catch (InjectionException e) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Build n instances of the base class. The class is scanned, or its binding
+	 *   resolved, once, then all the instances are created in a row, as build()
+	 *   does : a singleton binding returns the same instance n times.
+	 * @param n The number of instances to build
+	 * @return The list of the built instances
+	 * @throws InjectionException An error has occurred during the instantiation or dependency injection process
+	 */
+	public List<T> buildMany(int n) throws InjectionException {
+		final Binding binding = container.getBinding(baseClass);
+		final ServicePlan<T> plan = binding == null ? ServicePlan.of(baseClass) : null;
+		final List<T> instances = new ArrayList<>(n);
+
+		for (int i = 0; i < n; i++) {
+			instances.add(build(binding, plan));
+		}
+		return instances;
+	}
+
+	/**
+	 * Fill the provided array with new instances of the base class. The class is
+	 *   scanned, or its binding resolved, once, then all the instances are created
+	 *   in a row, as build() does.
+	 * @param instances The array to fill
+	 * @return The provided array
+	 * @throws InjectionException An error has occurred during the instantiation or dependency injection process
+	 */
+	public T[] buildMany(T[] instances) throws InjectionException {
+		final Binding binding = container.getBinding(baseClass);
+		final ServicePlan<T> plan = binding == null ? ServicePlan.of(baseClass) : null;
+
+		for (int i = 0; i < instances.length; i++) {
+			instances[i] = build(binding, plan);
+		}
+		return instances;
+	}
+
+	/**
+	 * Build an instance of the base class according to its binding, or following
+	 *   its plan if it is not bound.
+	 * @param binding The binding of the base class, or null
+	 * @param plan The plan of the base class, if it is not bound
+	 * @return The built instance
+	 * @throws InjectionException An error has occurred during the instantiation or dependency injection process
+	 */
+	@SuppressWarnings("unchecked")
+	private T build(Binding binding, ServicePlan<T> plan) throws InjectionException {
+		return binding != null ? (T) build(binding) : build(plan);
+	}
+
+	/**
+	 * Create an instance following the plan of its class : call the constructor,
+	 *   then inject setters and fields, the inherited ones first.
+	 * @param plan The plan of the class to build
+	 * @param <U> The type of the instance to build
+	 * @return The built instance
+	 * @throws InjectionException An error has occurred during the instantiation or dependency injection process
+	 */
+	private <U> U build(ServicePlan<U> plan) throws InjectionException {
+		final Class<?> parent = current;
+		final String point = injectionPoint;
+		final long outerTime = dependenciesTime;
+		final long start = recorder != null ? System.nanoTime() : 0L;
+
+		enter(plan.getType());
+		try {
+			U target = this.injectByConstructor(plan);
+			this.injectMembers(plan, target);
+			resolved(plan.getType(), target);
+			publish();
+
+			record(parent, point, plan.getType(), false, start, outerTime);
+			return target;
+		} finally {
+			exit(plan.getType(), parent, point);
+		}
+	}
+
+	/**
+	 * Start the construction of an instance : take the container configuration
+	 *   snapshot if it is the root instance, and push its class on the dependencies path.
+	 * @param type The class in construction
+	 */
+	private void enter(Class<?> type) {
+		if (dependencies.isEmpty()) {
+			snapshot = container.getConfiguration();
+		}
+		dependencies.add(type);
+		current = type;
+		dependenciesTime = 0L;
+	}
+
+	/**
+	 * End the construction of an instance, restoring the state of the dependent one.
+	 * @param type The class whose construction ends
+	 * @param parent The dependent class, or null for the root instance
+	 * @param point The injection point being resolved in the dependent class
+	 */
+	private void exit(Class<?> type, Class<?> parent, String point) {
+		dependencies.remove(type);
+		if (dependencies.isEmpty()) {
+			// Consumers, proxies and singletons holding a proxy of a failed build are
+			// dropped, but for the consumers of the cached singletons
+			consumed.clear();
+			references = null;
+			pending = null;
+			if (!escaped.isEmpty()) {
+				try {
+					container.consumed(snapshot, escaped);
+				} catch (InjectionException e) {
+					// The build has already failed, with its own exception
+				} finally {
+					escaped.clear();
+				}
+			}
+		}
+		current = parent;
+		injectionPoint = point;
+	}
+
+	/**
+	 * Resolve the proxies injected in place of an instance at the back edge of a cycle.
+	 * @param type The class of the built instance
+	 * @param instance The built instance
+	 */
+	private void resolved(Class<?> type, Object instance) {
+		if (references != null) {
+			final CycleProxy.Reference reference = references.remove(type);
+			if (reference != null) {
+				reference.resolve(instance);
+			}
+		}
+		if (pending != null) {
+			final Iterator<Holder> waiting = pending.values().iterator();
+			while (waiting.hasNext()) {
+				final Holder holder = waiting.next();
+				if (!holder.isWaiting()) {
+					holder.binding.setInstance(holder.instance);
+					waiting.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Register the configuration keys consumed by the build in the container,
+	 *   once the root instance is built.
+	 * @throws InjectionException If the re-injection of a value changed during
+	 *   the build has failed
+	 */
+	private void publish() throws InjectionException {
+		if (dependencies.size() == 1 && (!consumed.isEmpty() || !escaped.isEmpty())) {
+			consumed.addAll(escaped);
+			escaped.clear();
+			try {
+				container.consumed(snapshot, consumed);
+			} finally {
+				consumed.clear();
+			}
+		}
+	}
+
+	/**
+	 * Move the consumers of a singleton just built, and of its dependencies, to
+	 *   the consumers registered even if the build fails.
+	 * @param mark The number of consumers of the build when the singleton
+	 *   construction started
+	 */
+	private void escape(int mark) {
+		final List<ConfigurationIndex.Consumer> singleton = consumed.subList(mark, consumed.size());
+		escaped.addAll(singleton);
+		singleton.clear();
+	}
+
+	/**
+	 * Record the construction of an instance in the container graph, if recorded.
+	 * @param parent The dependent class, or null for the root instance
+	 * @param point The injection point being resolved in the dependent class
+	 * @param type The built class
+	 * @param provided Whether the instance comes from a provider
+	 * @param start The construction start time
+	 * @param outerTime The time already spent constructing the other dependencies of
+	 *   the dependent class
+	 */
+	private void record(Class<?> parent, String point, Class<?> type, boolean provided,
+			long start, long outerTime) {
+		if (recorder != null) {
+			final long elapsed = System.nanoTime() - start;
+			recorder.constructed(parent, point, type, provided, elapsed - dependenciesTime);
+			dependenciesTime = outerTime + elapsed;
+		}
 	}
 
 	/**
-	 * Inject an instance of the type type by instantiating
-	 *   a ServiceBuilder on the class that will resolve recursively its dependencies.
-	 * @param type The Class that represents the type of service to inject
-	 * @return The instance of type
+	 * Inject the value required by an injection point : an instance of a type,
+	 *   or the collection of all the instances contributed to a type.
+	 * @param dependency The dependency of the injection point
+	 * @return The value to inject
 	 * @throws InjectionException An error has occurred during the injection process,
 	 *   at this or a nested level.
 	 */
-	private Object inject(Class<?> type) throws InjectionException {		
-		
-		if (!type.isAnnotationPresent(Service.class)) {	
+	private Object inject(Dependency dependency) throws InjectionException {
+		final Dependency.Kind kind = dependency.getKind();
+		if (kind == Dependency.Kind.INSTANCE) {
+			return injectInstance(dependency);
+		}
+		if (kind == Dependency.Kind.OPTIONAL) {
+			return isAvailable(dependency) ?
+					Optional.of(injectInstance(dependency)) : Optional.empty();
+		}
+
+		final Multibinding multibinding = container.getMultibinding(dependency.getType());
+		if (multibinding == null) {
+			return Multibinding.empty(kind);
+		}
+
+		final Object collection = multibinding.getCollection(kind);
+		if (collection != null) {
+			return collection;
+		}
+
+		final Binding[] contributions = multibinding.getContributions(kind);
+		final Object[] instances = new Object[contributions.length];
+		for (int i = 0; i < instances.length; i++) {
+			instances[i] = build(contributions[i]);
+		}
+		return multibinding.toCollection(kind, instances);
+	}
+
+	/**
+	 * Indicates whether an instance of the type of a dependency can be injected :
+	 *   the type is bound in the container with the dependency qualifier, or is
+	 *   an unqualified service. The dependencies of the instance may still fail.
+	 * @param dependency The dependency of an optional injection point
+	 * @return true if the type is available
+	 */
+	private boolean isAvailable(Dependency dependency) {
+		return container.getBinding(dependency.getKey()) != null ||
+				dependency.isService() && dependency.getQualifier() == null;
+	}
+
+	/**
+	 * Indicates whether the dependencies of an instance are all available,
+	 *   recursively : the services are available as for an optional injection
+	 *   point, and the properties are resolvable. Other failures, such as cycles
+	 *   or invalid values, are left to the build.
+	 * @param binding The binding of the instance, or null if it is not bound
+	 * @param type The class of the instance, if it is not bound
+	 * @param visited The classes already checked
+	 * @return false if a dependency is missing
+	 */
+	private boolean isSatisfiable(Binding binding, Class<?> type, Set<Class<?>> visited) {
+		if (binding != null && binding.getInstance() != null) {
+			return true;
+		}
+		if (binding != null && binding.getProvider() != null) {
+			for (Dependency parameter : binding.getProvider().getParameters()) {
+				if (!isSatisfiable(parameter, visited)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		final ServicePlan<?> plan = binding != null ? binding.getPlan() : ServicePlan.of(type);
+		if (!visited.add(plan.getType())) {
+			return true;
+		}
+		for (Dependency parameter : plan.getParameters()) {
+			if (!isSatisfiable(parameter, visited)) {
+				return false;
+			}
+		}
+		for (ServicePlan.Member member : plan.getMembers()) {
+			if (member.isResolved()) {
+				if (!configuration.containsKey(member.key) &&
+						!member.isResolvable(container.getConfiguration())) {
+					return false;
+				}
+			} else if (member.dependency != null && !member.optional &&
+					!isSatisfiable(member.dependency, visited)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Indicates whether the instance required by an injection point, and its own
+	 *   dependencies, are available. Collections are always available.
+	 * @param dependency The dependency of the injection point
+	 * @param visited The classes already checked
+	 * @return false if a dependency is missing
+	 */
+	private boolean isSatisfiable(Dependency dependency, Set<Class<?>> visited) {
+		return dependency.getKind() != Dependency.Kind.INSTANCE || isAvailable(dependency) &&
+				isSatisfiable(container.getBinding(dependency.getKey()), dependency.getType(), visited);
+	}
+
+	/**
+	 * Inject an instance of the type of a dependency, resolving recursively its
+	 *   dependencies. The instance is created according to the binding of its key
+	 *   in the container if any, else the type must be an unqualified service.
+	 * @param dependency The dependency of the injection point
+	 * @return The instance
+	 * @throws InjectionException An error has occurred during the injection process,
+	 *   at this or a nested level.
+	 */
+	private Object injectInstance(Dependency dependency) throws InjectionException {
+		final Binding binding = container.getBinding(dependency.getKey());
+		if (binding != null) {
+			return build(binding);
+		}
+
+		final Class<?> type = dependency.getType();
+		if (dependency.getQualifier() != null) {
+			throw new InjectionException(UNBOUND, type.getName(),
+					BindingKey.describe(dependency.getQualifier()));
+		}
+
+		final ServicePlan<?> plan = ServicePlan.of(type);
+
+		if (!plan.isService()) {
 			throw new InjectionException(NOT_A_SERVICE, type.getName());
 		}
 		
-		// Class already proceeded, cycle detected
-		if (!dependencies.add(type)) {
+		// Class already in construction, cycle detected
+		if (dependencies.contains(type)) {
 			throw new CyclicDependencyException(type, dependencies);
 		}
 		
-		return ServiceBuilder
-				.instance(type, this)
-				.build();
+		return build(plan);
 	}
-	
+
 	/**
-	 * Try to resolve a property marked with @Resolve annotation
-	 *   on a field, with the key contained in it, or with the memberName if 
-	 *   no key was provided in the annotation use.
-	 * @param field The field representation 
-	 * @return The value of the property to resolve
-	 * @throws InjectionException If the injector has no configuration property
-	 *   with matching key.
+	 * Get an instance according to a binding : the singleton instance, built on
+	 *   first call, an instance borrowed from the pool in a scope, or a new instance
+	 *   for a prototype, or for a pooled binding injected in a singleton or in a
+	 *   pooled instance, which would hold it after the scope has returned it. If the implementation is
+	 *   already in construction and the
+	 *   container resolves cycles, a proxy of the bound type is returned instead,
+	 *   and the singletons holding it are cached once it is resolved.
+	 * @param binding The binding of the type to inject
+	 * @return The instance
+	 * @throws InjectionException An error has occurred during the injection process,
+	 *   at this or a nested level.
 	 */
-	private Object resolve(Field field)
-		throws InjectionException 	
-	{
-		final Resolve resolve = field.getAnnotation(Resolve.class);
-		final String key = (!resolve.value().isEmpty()) ?
-				resolve.value() : field.getName();
+	Object build(Binding binding) throws InjectionException {
+		if (container.isResolvingCycles() && dependencies.contains(binding.getImplementation())
+				&& CycleProxy.supports(binding.getType())) {
+			return proxy(binding);
+		}
+		if (binding.getScope() == Scope.POOLED && scope != null && holders.isEmpty()) {
+			return borrow(binding);
+		}
+		if (binding.getScope() != Scope.SINGLETON) {
+			return create(binding);
+		}
 
-		if (!configuration.containsKey(key)) {
-			throw new InjectionException(UNRESOLVABLE, field.getName(), key);
+		Object instance = binding.getInstance();
+		if (instance == null) {
+			synchronized (container.getSingletonLock()) {
+				instance = binding.getInstance();
+				if (instance == null) {
+					instance = unpublished(binding);
+				}
+				if (instance == null) {
+					final int mark = consumed.size();
+					final Holder holder = hold(binding);
+					try {
+						instance = create(binding);
+					} finally {
+						holders.remove(holders.size() - 1);
+					}
+					cache(holder, instance, mark);
+					return instance;
+				}
+			}
 		}
-		
-		return configuration.get(key);
+
+		if (recorder != null) {
+			recorder.reused(current, injectionPoint, binding.getImplementation());
+		}
+		return instance;
 	}
-	
+
 	/**
-	 * Try to resolve a property marked with @Resolve annotation
-	 *   on a setter method, with the key contained in it, or with the memberName if 
-	 *   no key was provided in the annotation use.
-	 * @param setter The setter method representation 
-	 * @return The value of the property to resolve
-	 * @throws InjectionException If the injector has no configuration property
-	 *   with matching key.
-	 */	
-	private Object resolve(Method setter)
-			throws InjectionException 	
-		{
-			final String memberName = ReflectionUtils.getMemberNameFromSetter(setter.getName());
-			final Resolve resolve = setter.getAnnotation(Resolve.class);
-			final String key = (!resolve.value().isEmpty()) ?
-					resolve.value() : memberName;
-
-			if (!configuration.containsKey(key)) {
-				throw new InjectionException(UNRESOLVABLE, memberName, key);
+	 * Start the construction of a singleton or a pooled instance.
+	 * @param binding The binding of the instance
+	 * @return The holder of the instance, to remove once it is built
+	 */
+	private Holder hold(Binding binding) {
+		final Holder holder = new Holder(binding, dependencies.size());
+		holders.add(holder);
+		return holder;
+	}
+
+	/**
+	 * Cache a singleton just built, or keep it in the build until the proxies
+	 *   it holds are resolved, so that no other build sees them unresolved.
+	 * @param holder The holder of the singleton
+	 * @param instance The singleton
+	 * @param mark The number of consumers of the build when the singleton
+	 *   construction started
+	 */
+	private void cache(Holder holder, Object instance, int mark) {
+		if (!holder.isWaiting()) {
+			holder.binding.setInstance(instance);
+			escape(mark);
+			return;
+		}
+		// Its consumers are escaped with the singleton whose proxy it holds
+		holder.instance = instance;
+		if (pending == null) {
+			pending = new IdentityHashMap<>();
+		}
+		pending.put(holder.binding, holder);
+	}
+
+	/**
+	 * Returns a singleton built by the current build and waiting for its proxies
+	 *   to be resolved. The instances in construction may hold these proxies too.
+	 * @param binding The singleton binding
+	 * @return The singleton, or null if it is not pending
+	 */
+	private Object unpublished(Binding binding) {
+		final Holder singleton = pending != null ? pending.get(binding) : null;
+		if (singleton == null) {
+			return null;
+		}
+		for (Holder holder : holders) {
+			for (CycleProxy.Reference reference : singleton.proxies) {
+				holder.hold(reference);
 			}
-			
-			return configuration.get(key);
 		}
+		return singleton.instance;
+	}
 
 	/**
-	 * Find the first eligible injectable constructor, resolve dependencies and
-	 *   call it.
-	 * @throws InjectionException If an error occurred during the injection process
+	 * Inject a proxy at the back edge of a cycle, in place of the instance of a
+	 *   binding still in construction. The proxy delegates to the instance once
+	 *   it is built.
+	 * @param binding The binding whose implementation is in construction
+	 * @return The proxy of the bound type
+	 * @throws CyclicDependencyException If a singleton or a pooled instance in
+	 *   construction would hold the proxy of an instance that is not a singleton,
+	 *   and keep one instance of it for every build
 	 */
-	private T injectByConstructor() throws InjectionException {
-		T target;
-		Constructor<T> constructor = findInjectableConstructor();
+	private Object proxy(Binding binding) throws CyclicDependencyException {
+		final Class<?> implementation = binding.getImplementation();
+		if (!holders.isEmpty() && binding.getScope() != Scope.SINGLETON &&
+				holders.get(holders.size() - 1).depth > depth(implementation)) {
+			throw new CyclicDependencyException(implementation, dependencies);
+		}
+		if (references == null) {
+			references = new IdentityHashMap<>();
+		}
+		if (recorder != null) {
+			recorder.proxied(current, injectionPoint, implementation);
+		}
+		final CycleProxy.Reference reference = references.computeIfAbsent(implementation,
+				CycleProxy.Reference::new);
+		for (Holder holder : holders) {
+			holder.hold(reference);
+		}
+		return CycleProxy.create(binding.getType(), reference);
+	}
 
-		try {
-			if (constructor != null) {
-				List<Object> values = new ArrayList<>();
-				
-				for (int i = 0, n = constructor.getParameterCount(); i < n; i++) {
-					Parameter param = constructor.getParameters()[i];
-					
-					try {
-						Object value = inject(param.getType());
-						values.add(value);
-					} catch (InjectionException e) {
-						// Chaining exception in the upper call of the stack
-						throw new NestedInjectionException(i, constructor, e);
-					}
-				}
-				
-				// Constructs the instance with the matching injectable constructor
-				target = constructor.newInstance(values.toArray());
-			} else {
-				// Constructs the instance with the empty constructor
-				target = baseClass.newInstance();
+	/**
+	 * Returns the position of a class in construction in the dependencies path.
+	 * @param type The class in construction
+	 * @return The position, from the root instance
+	 */
+	private int depth(Class<?> type) {
+		int depth = 0;
+		for (Class<?> dependency : dependencies) {
+			if (dependency == type) {
+				break;
 			}
-		} catch (ReflectiveOperationException cause) {
-		    throw new InjectionException(cause, INSTANTIATION_FAILED, baseClass.getName());
+			depth++;
 		}
-		return target;
+		return depth;
 	}
-	
+
 	/**
-	 * Scan all base class methods, gets setters and realize injection on each eligible ones.
-	 * @param target The instance in which to inject by setters
+	 * Borrow an instance of a pooled binding, or build it if the pool is empty,
+	 *   and record it in the scope, to return it on close.
+	 * @param binding The pooled binding of the type to inject
+	 * @return The instance
 	 * @throws InjectionException An error has occurred during the injection process,
 	 *   at this or a nested level.
 	 */
-	private void injectBySetters(T target) throws InjectionException {
-		for (final Method method : baseClass.getDeclaredMethods()) {	
-			if (ReflectionUtils.hasOneAnnotation(method, Inject.class, Resolve.class)) {
-				try {
-					method.setAccessible(true);
-					
-					if (!ReflectionUtils.isSetter(baseClass, method)) {
-						throw new InjectionException(NOT_A_SETTER, ReflectionUtils.describeMethod(method));
-					}
-					
-					Class<?> paramType = method.getParameterTypes()[0];
-					Object value = null;
-					
-					if (ReflectionUtils.hasOneAnnotation(method, Inject.class)) {
-						value = inject(paramType);
-					} else
-					if (ReflectionUtils.hasOneAnnotation(method, Resolve.class)) {
-						value = resolve(method);
-					}
-					
-					method.invoke(target, value);
-				} catch (InjectionException e) {
-					// Chaining exception in the upper call of the stack
-					throw new NestedInjectionException(method, e);
-				} catch (ReflectiveOperationException cause) {
-				    throw new InjectionException(cause, INJECTION_FAILED,
-                            ReflectionUtils.getMemberNameFromSetter(method.getName()));
-				} finally {
-					method.setAccessible(false);
-				}
+	private Object borrow(Binding binding) throws InjectionException {
+		final InstancePool pool = binding.getPool();
+
+		Object instance = pool.borrow();
+		if (instance == null) {
+			hold(binding);
+			try {
+				instance = create(binding);
+			} finally {
+				holders.remove(holders.size() - 1);
 			}
+		} else if (recorder != null) {
+			recorder.reused(current, injectionPoint, binding.getImplementation());
 		}
+
+		scope.borrowed(pool, instance);
+		return instance;
 	}
 
 	/**
-	 * Scan all base class fields and realize injection on each eligible ones.
-	 * @param target The instance in which to inject by fields
+	 * Create a new instance of a binding, with its implementation plan or its provider.
+	 * @param binding The binding of the type to inject
+	 * @return The new instance
 	 * @throws InjectionException An error has occurred during the injection process,
 	 *   at this or a nested level.
 	 */
-	private void injectByFields(T target) throws InjectionException {
-		
-		for (final Field field : baseClass.getDeclaredFields()) {	
-			if (ReflectionUtils.hasOneAnnotation(field, Inject.class, Resolve.class)) {
+	private Object create(Binding binding) throws InjectionException {
+		final Class<?> implementation = binding.getImplementation();
+
+		// Class already in construction, cycle detected
+		if (dependencies.contains(implementation)) {
+			throw new CyclicDependencyException(implementation, dependencies);
+		}
+
+		if (recorder != null) {
+			recorder.scope(implementation, binding.getScope());
+		}
+		return binding.getProvider() != null ?
+				provide(binding.getProvider()) : build(binding.getPlan());
+	}
+
+	/**
+	 * Invoke a provider method, resolving its arguments.
+	 * @param provider The provider of the type to inject
+	 * @return The provided instance
+	 * @throws InjectionException An error has occurred during the injection process,
+	 *   at this or a nested level.
+	 */
+	private Object provide(Provider provider) throws InjectionException {
+		final Class<?> type = provider.getType();
+		final Class<?> parent = current;
+		final String point = injectionPoint;
+		final long outerTime = dependenciesTime;
+		final long start = recorder != null ? System.nanoTime() : 0L;
+
+		enter(type);
+		try {
+			final Dependency[] parameters = provider.getParameters();
+			final Object[] values = new Object[parameters.length];
+
+			for (int i = 0; i < values.length; i++) {
 				try {
-					field.setAccessible(true);
-					if (ReflectionUtils.hasOneAnnotation(field, Inject.class)) {
-						field.set(target, inject(field.getType()));
-					} else 
-					if (ReflectionUtils.hasOneAnnotation(field, Resolve.class)) {
-						field.set(target, resolve(field));
-					}
+					injectionPoint = recorder != null ? "provider argument " + i : null;
+					values[i] = inject(parameters[i]);
 				} catch (InjectionException e) {
 					// Chaining exception in the upper call of the stack
-					throw new NestedInjectionException(field, e);
-				} catch (ReflectiveOperationException cause) {
-				    throw new InjectionException(cause, INSTANTIATION_FAILED, field.getName());
-				} finally {
-					field.setAccessible(false);
+					throw new NestedInjectionException(i, provider.getMethod(), e);
 				}
 			}
+
+			final Object instance = provider.provide(values);
+			resolved(type, instance);
+			publish();
+			record(parent, point, type, true, start, outerTime);
+			return instance;
+		} catch (InjectionException | Error e) {
+			throw e;
+		} catch (Throwable cause) {
+			throw new InjectionException(cause, PROVIDER_FAILED, provider.getMethod(), type.getName());
+		} finally {
+			exit(type, parent, point);
 		}
 	}
 	
 	/**
-	 * Find the first base class constructor with @Inject annotation.
-	 * 
-	 * @return An instance of Constructor<T>, or null if none was found.
+	 * Try to resolve a property marked with @Resolve annotation
+	 *   on a field or a setter, with the key contained in it, or with the member name if 
+	 *   no key was provided in the annotation use.
+	 * The property is looked up in the builder configuration, then in the container
+	 *   one, in which case the container records the injection for later changes
+	 *   if it keeps the instance.
+	 * @param plan The plan of the class of target
+	 * @param member The member representation
+	 * @param target The instance in which the property is injected
+	 * @return The value of the property to resolve
+	 * @throws InjectionException If the injector has no configuration property
+	 *   with matching key.
 	 */
-	@SuppressWarnings("unchecked")
-	private Constructor<T> findInjectableConstructor() {
-		
-		for (Constructor<?> constructor : baseClass.getConstructors()) {
-			if (constructor.getDeclaringClass().equals(baseClass) &&
-					constructor.isAnnotationPresent(Inject.class)) {
-				return (Constructor<T>) constructor;
-				
+	private Object resolve(ServicePlan<?> plan, ServicePlan.Member member, Object target)
+		throws InjectionException 	
+	{
+		if (configuration.containsKey(member.key)) {
+			return member.resolve(configuration);
+		}
+
+		if (!member.isResolvable(snapshot)) {
+			throw new InjectionException(UNRESOLVABLE, member.getName(), member.key);
+		}
+
+		// Only the instances kept by the container are reconfigured, unless it
+		// reconfigures its prototypes : the empty container keeps none
+		if (!holders.isEmpty() || recordingPrototypes) {
+			consumed.add(container.consumer(member.key, target, plan, member));
+		}
+		return member.resolve(snapshot);
+	}
+
+	/**
+	 * Call the planned constructor, resolving its dependencies.
+	 * @param plan The plan of the class to build
+	 * @param <U> The type of the instance to build
+	 * @throws InjectionException If an error occurred during the injection process
+	 */
+	private <U> U injectByConstructor(ServicePlan<U> plan) throws InjectionException {
+		final Dependency[] parameters = plan.getParameters();
+		final Object[] values = new Object[parameters.length];
+
+		for (int i = 0; i < values.length; i++) {
+			try {
+				injectionPoint = recorder != null ? "constructor argument " + i : null;
+				values[i] = inject(parameters[i]);
+			} catch (InjectionException e) {
+				// Chaining exception in the upper call of the stack
+				throw new NestedInjectionException(i, plan.getConstructor(), e);
+			}
+		}
+
+		try {
+			return plan.newInstance(values);
+		} catch (ReflectiveOperationException cause) {
+		    throw new InjectionException(cause, INSTANTIATION_FAILED, plan.getType().getName());
+		}
+	}
+	
+	/**
+	 * Realize injection on each of the planned setters and fields.
+	 * @param plan The plan of the class of target
+	 * @param target The instance in which to inject
+	 * @throws InjectionException An error has occurred during the injection process,
+	 *   at this or a nested level.
+	 */
+	private void injectMembers(ServicePlan<?> plan, Object target) throws InjectionException {
+		for (final ServicePlan.Member member : plan.getMembers()) {
+			try {
+				member.check();
+				injectionPoint = recorder != null ? member.getInjectionPoint() : null;
+				if (member.isResolved()) {
+					member.inject(target, resolve(plan, member, target));
+				} else if (!member.optional || isAvailable(member.dependency)) {
+					member.inject(target, inject(member.dependency));
+				}
+			} catch (InjectionException e) {
+				// Chaining exception in the upper call of the stack
+				throw member.nest(e);
+			} catch (ReflectiveOperationException cause) {
+				throw member.failure(cause);
 			}
 		}
-		return null;
 	}
 
 	/**
@@ -0,0 +1,473 @@
+package org.needle.di;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * The graph of the services built by a container : one node per built class,
+ *   with its scope, the way its dependencies are injected and the time spent
+ *   constructing it, and one edge per injection point through which a class
+ *   received a dependency.
+ * The graph also gives its critical path : the chain of dependencies whose
+ *   construction times add up to the longest, which bounds the startup time.
+ *   The edges through which a cycle proxy was injected close a cycle, and are
+ *   left out of it.
+ * A graph is an immutable snapshot of what a recording container has built so far.
+ * @see Container.Builder#recordGraph()
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public final class ServiceGraph {
+
+	/**
+	 * A built class.
+	 * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+	 */
+	public static final class Node {
+
+		private final Class<?> type;
+
+		private final Scope scope;
+
+		private final List<String> injection;
+
+		private final long constructions;
+
+		private final long constructionTime;
+
+		private Node(Class<?> type, Scope scope, List<String> injection,
+				long constructions, long constructionTime) {
+			this.type = type;
+			this.scope = scope;
+			this.injection = injection;
+			this.constructions = constructions;
+			this.constructionTime = constructionTime;
+		}
+
+		/**
+		 * Returns the built class.
+		 * @return The class, or the provided type for a provider method
+		 */
+		public Class<?> getType() {
+			return type;
+		}
+
+		/**
+		 * Returns the scope in which the class is built.
+		 * @return The scope of the class binding, PROTOTYPE if not bound
+		 */
+		public Scope getScope() {
+			return scope;
+		}
+
+		/**
+		 * Returns the injection styles of the class dependencies.
+		 * @return Some of "constructor", "setter", "field", or "provider" for a provider method
+		 */
+		public List<String> getInjection() {
+			return injection;
+		}
+
+		/**
+		 * Returns how many instances of the class have been built.
+		 * @return The number of constructions
+		 */
+		public long getConstructions() {
+			return constructions;
+		}
+
+		/**
+		 * Returns the total time spent constructing the class instances, excluding
+		 *   the construction of their dependencies.
+		 * @return The construction time, in nanoseconds
+		 */
+		public long getConstructionTime() {
+			return constructionTime;
+		}
+	}
+
+	/**
+	 * An injection point through which a class received a dependency.
+	 * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+	 */
+	public static final class Edge {
+
+		private final Class<?> from;
+
+		private final Class<?> to;
+
+		private final String injectionPoint;
+
+		private final boolean proxy;
+
+		Edge(Class<?> from, Class<?> to, String injectionPoint) {
+			this(from, to, injectionPoint, false);
+		}
+
+		Edge(Class<?> from, Class<?> to, String injectionPoint, boolean proxy) {
+			this.from = from;
+			this.to = to;
+			this.injectionPoint = injectionPoint;
+			this.proxy = proxy;
+		}
+
+		/**
+		 * Returns the class that received the dependency.
+		 * @return The dependent class
+		 */
+		public Class<?> getFrom() {
+			return from;
+		}
+
+		/**
+		 * Returns the class of the injected dependency.
+		 * @return The dependency class
+		 */
+		public Class<?> getTo() {
+			return to;
+		}
+
+		/**
+		 * Returns the injection point, such as "field engine".
+		 * @return The injection point description
+		 */
+		public String getInjectionPoint() {
+			return injectionPoint;
+		}
+
+		/**
+		 * Indicates whether the dependency was injected as a cycle proxy, the
+		 *   dependency being still in construction.
+		 * @return true for the back edge of a resolved cycle
+		 */
+		public boolean isProxy() {
+			return proxy;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Edge)) {
+				return false;
+			}
+			final Edge edge = (Edge) o;
+			return from == edge.from && to == edge.to && injectionPoint.equals(edge.injectionPoint) &&
+					proxy == edge.proxy;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(from, to, injectionPoint);
+		}
+	}
+
+	/**
+	 * Records the graph while a container builds its services.
+	 * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+	 */
+	static final class Recorder {
+
+		/**
+		 * What is known about a built class.
+		 */
+		private static final class Stats {
+
+			private volatile Scope scope = Scope.PROTOTYPE;
+
+			private volatile boolean provided;
+
+			private final AtomicLong constructions = new AtomicLong();
+
+			private final AtomicLong constructionTime = new AtomicLong();
+		}
+
+		private final Map<Class<?>, Stats> nodes = new ConcurrentHashMap<>();
+
+		private final Set<Edge> edges = ConcurrentHashMap.newKeySet();
+
+		private Stats stats(Class<?> type) {
+			return nodes.computeIfAbsent(type, t -> new Stats());
+		}
+
+		/**
+		 * Record the construction of an instance.
+		 * @param parent The class that receives the instance, or null for a root instance
+		 * @param injectionPoint The injection point in parent, or null for a root instance
+		 * @param type The built class
+		 * @param provided Whether the instance comes from a provider method
+		 * @param time The construction time, excluding the dependencies, in nanoseconds
+		 */
+		void constructed(Class<?> parent, String injectionPoint, Class<?> type, boolean provided, long time) {
+			final Stats stats = stats(type);
+			stats.provided = provided;
+			stats.constructions.incrementAndGet();
+			stats.constructionTime.addAndGet(time);
+			reused(parent, injectionPoint, type);
+		}
+
+		/**
+		 * Record the injection of an existing instance, such as a singleton.
+		 * @param parent The class that receives the instance, or null for a root instance
+		 * @param injectionPoint The injection point in parent, or null for a root instance
+		 * @param type The class of the instance
+		 */
+		void reused(Class<?> parent, String injectionPoint, Class<?> type) {
+			if (parent != null) {
+				edges.add(new Edge(parent, type, injectionPoint));
+			}
+		}
+
+		/**
+		 * Record the injection of a cycle proxy, standing for an instance in construction.
+		 * @param parent The class that receives the proxy
+		 * @param injectionPoint The injection point in parent
+		 * @param type The class of the instance in construction
+		 */
+		void proxied(Class<?> parent, String injectionPoint, Class<?> type) {
+			edges.add(new Edge(parent, type, injectionPoint, true));
+		}
+
+		/**
+		 * Record the scope of a bound class.
+		 * @param type The class
+		 * @param scope The scope of its binding
+		 */
+		void scope(Class<?> type, Scope scope) {
+			stats(type).scope = scope;
+		}
+
+		/**
+		 * Returns a snapshot of the recorded graph.
+		 * @return The graph
+		 */
+		ServiceGraph snapshot() {
+			final Map<Class<?>, Node> snapshot = new LinkedHashMap<>();
+			nodes.forEach((type, stats) -> snapshot.put(type, new Node(type, stats.scope,
+					stats.provided ? Collections.singletonList("provider") : injection(type),
+					stats.constructions.get(), stats.constructionTime.get())));
+
+			// Classes still in construction have no statistics yet
+			for (Edge edge : edges) {
+				for (Class<?> type : Arrays.asList(edge.from, edge.to)) {
+					snapshot.computeIfAbsent(type, t -> new Node(t, Scope.PROTOTYPE, injection(t), 0, 0));
+				}
+			}
+			return new ServiceGraph(snapshot, new ArrayList<>(edges));
+		}
+
+		/**
+		 * Returns the injection styles of a class, from its plan.
+		 * @param type The class
+		 * @return The injection styles
+		 */
+		private static List<String> injection(Class<?> type) {
+			final ServicePlan<?> plan = ServicePlan.of(type);
+			final List<String> injection = new ArrayList<>();
+
+			if (plan.getParameters().length > 0) {
+				injection.add("constructor");
+			}
+			if (Arrays.stream(plan.getMembers()).anyMatch(m -> m instanceof ServicePlan.Setter)) {
+				injection.add("setter");
+			}
+			if (Arrays.stream(plan.getMembers()).anyMatch(m -> m instanceof ServicePlan.FieldMember)) {
+				injection.add("field");
+			}
+			return Collections.unmodifiableList(injection);
+		}
+	}
+
+	/**
+	 * The nodes, by class
+	 */
+	private final Map<Class<?>, Node> nodes;
+
+	/**
+	 * The edges
+	 */
+	private final List<Edge> edges;
+
+	/**
+	 * The critical path, from a root class to a leaf one
+	 */
+	private final List<Class<?>> criticalPath;
+
+	/**
+	 * Create a graph and compute its critical path.
+	 * @param nodes The nodes, by class
+	 * @param edges The edges
+	 */
+	private ServiceGraph(Map<Class<?>, Node> nodes, List<Edge> edges) {
+		this.nodes = Collections.unmodifiableMap(nodes);
+		this.edges = Collections.unmodifiableList(edges);
+		this.criticalPath = computeCriticalPath();
+	}
+
+	/**
+	 * Returns the nodes of the graph.
+	 * @return The nodes
+	 */
+	public Collection<Node> getNodes() {
+		return nodes.values();
+	}
+
+	/**
+	 * Returns the node of a class.
+	 * @param type The built class
+	 * @return The node, or null if the class has not been built
+	 */
+	public Node getNode(Class<?> type) {
+		return nodes.get(type);
+	}
+
+	/**
+	 * Returns the edges of the graph.
+	 * @return The edges
+	 */
+	public List<Edge> getEdges() {
+		return edges;
+	}
+
+	/**
+	 * Returns the critical path : the chain of dependencies, from a class to its
+	 *   deepest dependency, whose total construction time is the longest.
+	 * @return The classes of the critical path, the dependent one first
+	 */
+	public List<Class<?>> getCriticalPath() {
+		return criticalPath;
+	}
+
+	/**
+	 * Returns the total construction time of the critical path.
+	 * @return The critical path time, in nanoseconds
+	 */
+	public long getCriticalPathTime() {
+		return criticalPath.stream().mapToLong(type -> nodes.get(type).getConstructionTime()).sum();
+	}
+
+	/**
+	 * Find the longest path of the graph, weighted by the construction times.
+	 * The proxy edges are left out : the container rejects the other cycles, so
+	 *   the remaining graph is acyclic. The classes in construction on the current
+	 *   path are skipped all the same, should a cycle remain.
+	 * @return The critical path
+	 */
+	private List<Class<?>> computeCriticalPath() {
+		final Map<Class<?>, List<Class<?>>> successors = new HashMap<>();
+		for (Edge edge : edges) {
+			if (!edge.proxy) {
+				successors.computeIfAbsent(edge.from, type -> new ArrayList<>()).add(edge.to);
+			}
+		}
+
+		final Map<Class<?>, Long> times = new HashMap<>();
+		final Map<Class<?>, Class<?>> next = new HashMap<>();
+		final Set<Class<?>> visiting = new HashSet<>();
+		Class<?> start = null;
+		long longest = -1;
+		for (Class<?> type : nodes.keySet()) {
+			final long time = pathTime(type, successors, times, next, visiting);
+			if (time > longest) {
+				longest = time;
+				start = type;
+			}
+		}
+
+		final List<Class<?>> path = new ArrayList<>();
+		for (Class<?> type = start; type != null; type = next.get(type)) {
+			path.add(type);
+		}
+		return Collections.unmodifiableList(path);
+	}
+
+	/**
+	 * Returns the time of the longest path starting from a class.
+	 * @param type The first class of the path
+	 * @param successors The dependencies of each class
+	 * @param times The longest path times already computed
+	 * @param next The next class on the longest path of each class
+	 * @param visiting The classes of the path being computed
+	 * @return The time of the longest path
+	 */
+	private long pathTime(Class<?> type, Map<Class<?>, List<Class<?>>> successors,
+			Map<Class<?>, Long> times, Map<Class<?>, Class<?>> next, Set<Class<?>> visiting) {
+		final Long known = times.get(type);
+		if (known != null) {
+			return known;
+		}
+
+		visiting.add(type);
+		long longest = -1;
+		for (Class<?> successor : successors.getOrDefault(type, Collections.emptyList())) {
+			if (visiting.contains(successor)) {
+				continue;
+			}
+			final long time = pathTime(successor, successors, times, next, visiting);
+			if (time > longest) {
+				longest = time;
+				next.put(type, successor);
+			}
+		}
+		visiting.remove(type);
+
+		final long time = nodes.get(type).getConstructionTime() + Math.max(longest, 0);
+		times.put(type, time);
+		return time;
+	}
+
+	/**
+	 * Export the graph in the DOT format. Nodes of the critical path are drawn in
+	 *   red, and the proxy edges are dashed.
+	 * @return The DOT representation of the graph
+	 */
+	public String toDot() {
+		final StringBuilder dot = new StringBuilder("digraph services {\n");
+		final Set<Class<?>> critical = new HashSet<>(criticalPath);
+
+		for (Node node : nodes.values()) {
+			dot.append("  \"").append(node.type.getName()).append("\" [label=\"")
+					.append(node.type.getSimpleName()).append("\\n")
+					.append(node.scope).append("\\n")
+					.append(String.join(", ", node.injection)).append("\\n")
+					.append(String.format(Locale.ROOT, "%.3f ms", node.constructionTime / 1e6))
+					.append('"')
+					.append(critical.contains(node.type) ? ", color=red" : "")
+					.append("];\n");
+		}
+		for (Edge edge : edges) {
+			dot.append("  \"").append(edge.from.getName()).append("\" -> \"")
+					.append(edge.to.getName()).append("\" [label=\"")
+					.append(edge.injectionPoint).append('"')
+					.append(edge.proxy ? ", style=dashed" : "")
+					.append("];\n");
+		}
+		return dot.append("}\n").toString();
+	}
+
+	/**
+	 * Export the graph in the JSON format.
+	 * @return The JSON representation of the graph
+	 */
+	public String toJson() {
+		final String nodes = this.nodes.values().stream()
+				.map(node -> "{\"type\":\"" + node.type.getName() +
+						"\",\"scope\":\"" + node.scope +
+						"\",\"injection\":[" + node.injection.stream()
+								.map(style -> '"' + style + '"').collect(Collectors.joining(",")) +
+						"],\"constructions\":" + node.constructions +
+						",\"constructionTime\":" + node.constructionTime + "}")
+				.collect(Collectors.joining(","));
+		final String edges = this.edges.stream()
+				.map(edge -> "{\"from\":\"" + edge.from.getName() +
+						"\",\"to\":\"" + edge.to.getName() +
+						"\",\"injectionPoint\":\"" + edge.injectionPoint +
+						"\",\"proxy\":" + edge.proxy + "}")
+				.collect(Collectors.joining(","));
+		final String path = criticalPath.stream()
+				.map(type -> '"' + type.getName() + '"')
+				.collect(Collectors.joining(","));
+
+		return "{\"nodes\":[" + nodes + "],\"edges\":[" + edges +
+				"],\"criticalPath\":[" + path + "],\"criticalPathTime\":" + getCriticalPathTime() + "}";
+	}
+}
@@ -0,0 +1,679 @@
+package org.needle.di;
+
+import org.needle.di.annotations.Inject;
+import org.needle.di.annotations.Reconfigured;
+import org.needle.di.annotations.Reset;
+import org.needle.di.annotations.Resolve;
+import org.needle.di.annotations.Service;
+import org.needle.di.exceptions.InjectionException;
+import org.needle.di.exceptions.NestedInjectionException;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static org.needle.di.exceptions.InjectionException.*;
+
+/**
+ * The injection plan of a class : the result of the scan of its constructors,
+ *   setters and fields, including the ones inherited from its superclasses,
+ *   computed once per class and shared by all the ServiceBuilder instances
+ *   that build it.
+ * A ServiceBuilder only walks the plan and never calls the reflection
+ *   API on the class again. Once the class has been built often enough, the
+ *   reflective calls of the plan are replaced by generated classes.
+ * @see FactoryGenerator
+ * @param <T> The type of the planned class
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class ServicePlan<T> {
+
+	/**
+	 * The plans already computed, one per class.
+	 */
+	private static final ClassValue<ServicePlan<?>> PLANS = new ClassValue<ServicePlan<?>>() {
+		@Override
+		protected ServicePlan<?> computeValue(Class<?> type) {
+			return new ServicePlan<>(type);
+		}
+	};
+
+	/**
+	 * An injectable member of the planned class, setter or field.
+	 * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+	 */
+	static abstract class Member {
+
+		/**
+		 * The type of the value to inject
+		 */
+		final Class<?> type;
+
+		/**
+		 * The service dependency to inject, or null if the member is resolved
+		 */
+		final Dependency dependency;
+
+		/**
+		 * The configuration key to resolve, or null if the member is
+		 *   injected with a service instance.
+		 */
+		final String key;
+
+		/**
+		 * Whether the injection of the service is skipped when it is not available
+		 */
+		final boolean optional;
+
+		/**
+		 * Whether the resolved member is declared as an Optional
+		 */
+		private final boolean optionalValue;
+
+		/**
+		 * The type of the resolved value, the element type for an Optional member
+		 */
+		private final Class<?> valueType;
+
+		/**
+		 * The converted default value of the resolved member, or null if it has none
+		 */
+		private final Object defaultValue;
+
+		/**
+		 * The reason why the default value cannot be converted, if so
+		 */
+		private final InjectionException defaultFailure;
+
+		/**
+		 * The generated writer of the member, or null while it is written by reflection
+		 */
+		private volatile BiConsumer<Object, Object> writer;
+
+		/**
+		 * Create a member of the plan.
+		 * @param element The annotated field or setter
+		 * @param name The member name, default configuration key
+		 * @param type The type of the value to inject
+		 * @param genericType The generic type of the value to inject
+		 */
+		Member(AnnotatedElement element, String name, Class<?> type, Type genericType) {
+			final Resolve resolve = element.getAnnotation(Resolve.class);
+			final Inject inject = element.getAnnotation(Inject.class);
+
+			this.type = type;
+			this.key = resolveKey(resolve, name);
+			this.dependency = key == null && type != null ?
+					Dependency.of(type, genericType, element.getAnnotations()) : null;
+			this.optional = inject != null && inject.optional();
+			this.optionalValue = key != null && type == Optional.class;
+
+			this.valueType = optionalValue ? Dependency.of(type, genericType).getType() : type;
+
+			Object defaultValue = null;
+			InjectionException defaultFailure = null;
+			if (resolve != null && !Resolve.NO_DEFAULT.equals(resolve.defaultValue()) && type != null) {
+				try {
+					defaultValue = ReflectionUtils.parseValue(resolve.defaultValue(), valueType);
+				} catch (IllegalArgumentException cause) {
+					defaultFailure = new InjectionException(cause, INVALID_DEFAULT,
+							resolve.defaultValue(), name, valueType.getName());
+				}
+			}
+			this.defaultValue = defaultValue;
+			this.defaultFailure = defaultFailure;
+		}
+
+		/**
+		 * Indicates whether the member value comes from the configuration.
+		 * @return true for a @Resolve member, false for an @Inject one
+		 */
+		boolean isResolved() {
+			return key != null;
+		}
+
+		/**
+		 * Indicates whether the resolved member can be injected from a configuration :
+		 *   the key is present, or the member has a default value or is an Optional.
+		 * @param configuration The configuration
+		 * @return true if the member is resolvable
+		 */
+		boolean isResolvable(Map<String, Object> configuration) {
+			return defaultValue != null || optionalValue || configuration.containsKey(key);
+		}
+
+		/**
+		 * Returns the value of the resolved member in a configuration, wrapped in an
+		 *   Optional if the member is one, or its default value if the key is missing.
+		 * A String value, read from a properties file for instance, is converted
+		 *   to the member type.
+		 * @param configuration The resolvable configuration
+		 * @return The value to inject
+		 * @throws InjectionException If a String value cannot be converted to the
+		 *   member type, or if the value is null and the member type is primitive
+		 */
+		Object resolve(Map<String, Object> configuration) throws InjectionException {
+			Object value = configuration.containsKey(key) ? configuration.get(key) : defaultValue;
+
+			if (value instanceof String && valueType != null && !valueType.isInstance(value)) {
+				try {
+					value = ReflectionUtils.parseValue((String) value, valueType);
+				} catch (IllegalArgumentException cause) {
+					throw new InjectionException(cause, INVALID_VALUE, value, key, valueType.getName());
+				}
+			}
+			if (value == null && valueType != null && valueType.isPrimitive()) {
+				throw new InjectionException(UNRESOLVABLE, getName(), key);
+			}
+			return optionalValue ? Optional.ofNullable(value) : value;
+		}
+
+		/**
+		 * Returns the name of the member, as used in error messages.
+		 * @return The member name
+		 */
+		abstract String getName();
+
+		/**
+		 * Returns the description of the member as an injection point.
+		 * @return The member kind and name, such as "field engine"
+		 */
+		abstract String getInjectionPoint();
+
+		/**
+		 * Check that the member can be injected at all.
+		 * @throws InjectionException If the member is not injectable
+		 */
+		void check() throws InjectionException {
+			if (defaultFailure != null) {
+				throw defaultFailure;
+			}
+		}
+
+		/**
+		 * Write the value in the member of the target instance, with the generated
+		 *   writer if any. A value of the wrong type is left to reflection, which
+		 *   reports it.
+		 * @param target The instance in which to inject
+		 * @param value The value to inject
+		 * @throws ReflectiveOperationException The write has failed
+		 */
+		final void inject(Object target, Object value) throws ReflectiveOperationException {
+			final BiConsumer<Object, Object> writer = this.writer;
+			if (writer == null || value != null && !type.isInstance(value)) {
+				write(target, value);
+				return;
+			}
+			try {
+				writer.accept(target, value);
+			} catch (Throwable cause) {
+				// Thrown by the setter, as reflection would report it
+				throw new InvocationTargetException(cause);
+			}
+		}
+
+		/**
+		 * Write the value in the member of the target instance by reflection.
+		 * @param target The instance in which to inject
+		 * @param value The value to inject
+		 * @throws ReflectiveOperationException The reflective write has failed
+		 */
+		abstract void write(Object target, Object value) throws ReflectiveOperationException;
+
+		/**
+		 * Indicates whether the member is written by a generated writer.
+		 * @return true once the plan is compiled, if the member could be generated
+		 */
+		boolean isGenerated() {
+			return writer != null;
+		}
+
+		/**
+		 * Generate the writer of the member, if it has none yet.
+		 */
+		void compile() {
+			if (writer == null) {
+				writer = generate();
+			}
+		}
+
+		/**
+		 * Generate the writer of the member.
+		 * @return The writer, or null if the member is left to reflection
+		 */
+		abstract BiConsumer<Object, Object> generate();
+
+		/**
+		 * Wrap an exception thrown while building the value of this member.
+		 * @param e The nested exception
+		 * @return The exception to throw to the upper level
+		 */
+		abstract NestedInjectionException nest(InjectionException e);
+
+		/**
+		 * Wrap an exception thrown by the reflective write of this member.
+		 * @param cause The reflective exception
+		 * @return The exception to throw
+		 */
+		abstract InjectionException failure(ReflectiveOperationException cause);
+	}
+
+	/**
+	 * A setter marked with @Inject or @Resolve.
+	 * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+	 */
+	static final class Setter extends Member {
+
+		final Method method;
+
+		private final boolean setter;
+
+		Setter(Class<?> baseClass, Method method) {
+			super(method, ReflectionUtils.getMemberNameFromSetter(method.getName()),
+					method.getParameterCount() > 0 ? method.getParameterTypes()[0] : null,
+					method.getParameterCount() > 0 ? method.getGenericParameterTypes()[0] : null);
+			this.method = method;
+			this.setter = ReflectionUtils.isSetter(baseClass, method);
+			this.method.setAccessible(true);
+		}
+
+		@Override
+		String getName() {
+			return ReflectionUtils.getMemberNameFromSetter(method.getName());
+		}
+
+		@Override
+		String getInjectionPoint() {
+			return "setter " + method.getName();
+		}
+
+		@Override
+		void check() throws InjectionException {
+			if (!setter) {
+				throw new InjectionException(NOT_A_SETTER, method);
+			}
+			super.check();
+		}
+
+		@Override
+		void write(Object target, Object value) throws ReflectiveOperationException {
+			method.invoke(target, value);
+		}
+
+		@Override
+		BiConsumer<Object, Object> generate() {
+			return setter ? FactoryGenerator.generate(method) : null;
+		}
+
+		@Override
+		NestedInjectionException nest(InjectionException e) {
+			return new NestedInjectionException(method, e);
+		}
+
+		@Override
+		InjectionException failure(ReflectiveOperationException cause) {
+			return new InjectionException(cause, INJECTION_FAILED, getName());
+		}
+	}
+
+	/**
+	 * A field marked with @Inject or @Resolve.
+	 * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+	 */
+	static final class FieldMember extends Member {
+
+		final Field field;
+
+		FieldMember(Field field) {
+			super(field, field.getName(), field.getType(), field.getGenericType());
+			this.field = field;
+			this.field.setAccessible(true);
+		}
+
+		@Override
+		String getName() {
+			return field.getName();
+		}
+
+		@Override
+		String getInjectionPoint() {
+			return "field " + field.getName();
+		}
+
+		@Override
+		void write(Object target, Object value) throws ReflectiveOperationException {
+			field.set(target, value);
+		}
+
+		@Override
+		BiConsumer<Object, Object> generate() {
+			return FactoryGenerator.generate(field);
+		}
+
+		@Override
+		NestedInjectionException nest(InjectionException e) {
+			return new NestedInjectionException(field, e);
+		}
+
+		@Override
+		InjectionException failure(ReflectiveOperationException cause) {
+			return new InjectionException(cause, INSTANTIATION_FAILED, field.getName());
+		}
+	}
+
+	/**
+	 * The planned class
+	 */
+	private final Class<T> type;
+
+	/**
+	 * Whether the planned class is annotated by @Service
+	 */
+	private final boolean service;
+
+	/**
+	 * The constructor to call : the @Inject one if any, else the empty one.
+	 */
+	private final Constructor<T> constructor;
+
+	/**
+	 * The services to inject in the constructor arguments
+	 */
+	private final Dependency[] parameters;
+
+	/**
+	 * The reason why no constructor can be called, if so
+	 */
+	private final ReflectiveOperationException constructorFailure;
+
+	/**
+	 * The setters and fields to inject, from the top of the hierarchy
+	 *   down to the planned class
+	 */
+	private final Member[] members;
+
+	/**
+	 * The @Reconfigured method, declared by the class or inherited, or null
+	 */
+	private final Method reconfigured;
+
+	/**
+	 * The @Reset method, declared by the class or inherited, or null
+	 */
+	private final Method reset;
+
+	/**
+	 * The number of builds of the class, counted until the plan is compiled.
+	 *   Racy : a few lost increments only delay the compilation.
+	 */
+	private int builds;
+
+	/**
+	 * Whether the plan has been compiled, successfully or not
+	 */
+	private volatile boolean compiled;
+
+	/**
+	 * The generated factory of the class, or null while it is built by reflection
+	 */
+	private volatile Function<Object[], Object> factory;
+
+	/**
+	 * Returns the plan of the given class, computing it on first call.
+	 * @param type The class to plan
+	 * @param <T> The type of the planned class
+	 * @return The shared plan of the class
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> ServicePlan<T> of(Class<T> type) {
+		return (ServicePlan<T>) PLANS.get(type);
+	}
+
+	/**
+	 * Scan the class and compute its plan.
+	 * @param type The class to plan
+	 */
+	private ServicePlan(Class<T> type) {
+		this.type = type;
+		this.service = type.isAnnotationPresent(Service.class);
+
+		Constructor<T> constructor = findInjectableConstructor(type);
+		ReflectiveOperationException failure = null;
+		if (constructor == null) {
+			try {
+				constructor = type.getConstructor();
+			} catch (NoSuchMethodException e) {
+				failure = e;
+			}
+		}
+		if (constructor != null) {
+			constructor.setAccessible(true);
+		}
+		this.constructor = constructor;
+		this.constructorFailure = failure;
+		this.parameters = constructor != null && constructor.isAnnotationPresent(Inject.class) ?
+				Dependency.of(constructor.getParameterTypes(), constructor.getGenericParameterTypes(),
+						constructor.getParameterAnnotations()) :
+				new Dependency[0];
+
+		this.members = flatten(type);
+		this.reconfigured = findCallback(type, Reconfigured.class);
+		this.reset = findCallback(type, Reset.class);
+	}
+
+	/**
+	 * Find the method of the class marked with the given annotation, or else
+	 *   the one inherited from its superclass plan.
+	 * @param type The class to scan
+	 * @param annotation The callback annotation, @Reconfigured or @Reset
+	 * @return The method, accessible, or null if none was found
+	 */
+	private static Method findCallback(Class<?> type, Class<? extends java.lang.annotation.Annotation> annotation) {
+		for (final Method method : type.getDeclaredMethods()) {
+			if (method.isAnnotationPresent(annotation)) {
+				method.setAccessible(true);
+				return method;
+			}
+		}
+
+		final Class<?> superclass = type.getSuperclass();
+		if (superclass == null || superclass == Object.class) {
+			return null;
+		}
+		return annotation == Reset.class ? of(superclass).reset : of(superclass).reconfigured;
+	}
+
+	/**
+	 * Build the member table of the class : the table of its superclass,
+	 *   without the setters overridden in the class, followed by the setters
+	 *   and fields declared in the class itself.
+	 * The superclass table is taken from its own cached plan, so that a common
+	 *   ancestor is scanned only once.
+	 * @param type The class to scan
+	 * @return The members to inject, superclass ones first
+	 */
+	private static Member[] flatten(Class<?> type) {
+		final List<Member> members = new ArrayList<>();
+		final Class<?> superclass = type.getSuperclass();
+
+		if (superclass != null && superclass != Object.class) {
+			for (Member member : of(superclass).members) {
+				if (!(member instanceof Setter) ||
+						!ReflectionUtils.isOverridden(((Setter) member).method, type)) {
+					members.add(member);
+				}
+			}
+		}
+
+		for (final Method method : type.getDeclaredMethods()) {
+			if (ReflectionUtils.hasOneAnnotation(method, Inject.class, Resolve.class)) {
+				members.add(new Setter(type, method));
+			}
+		}
+
+		for (final Field field : type.getDeclaredFields()) {
+			if (ReflectionUtils.hasOneAnnotation(field, Inject.class, Resolve.class)) {
+				members.add(new FieldMember(field));
+			}
+		}
+		return members.toArray(new Member[0]);
+	}
+
+	/**
+	 * Find the first class constructor with @Inject annotation.
+	 * @param type The class to scan
+	 * @param <T> The type of the class
+	 * @return An instance of Constructor<T>, or null if none was found.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> Constructor<T> findInjectableConstructor(Class<T> type) {
+		for (Constructor<?> constructor : type.getConstructors()) {
+			if (constructor.getDeclaringClass().equals(type) &&
+					constructor.isAnnotationPresent(Inject.class)) {
+				return (Constructor<T>) constructor;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the configuration key of a @Resolve member.
+	 * @param resolve The annotation, or null if the member is not resolved
+	 * @param memberName The member name, default key
+	 * @return The key, or null if the member is not resolved
+	 */
+	private static String resolveKey(Resolve resolve, String memberName) {
+		if (resolve == null) {
+			return null;
+		}
+		return !resolve.value().isEmpty() ? resolve.value() : memberName;
+	}
+
+	/**
+	 * Returns the planned class.
+	 * @return The planned class
+	 */
+	Class<T> getType() {
+		return type;
+	}
+
+	/**
+	 * Indicates whether the planned class can be injected as a service.
+	 * @return true if the class is annotated with @Service
+	 */
+	boolean isService() {
+		return service;
+	}
+
+	/**
+	 * Returns the services to inject in the constructor arguments.
+	 * @return The argument dependencies, empty for the empty constructor
+	 */
+	Dependency[] getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * Call the planned constructor.
+	 * @param args The constructor arguments
+	 * @return The new instance
+	 * @throws ReflectiveOperationException The instantiation has failed
+	 */
+	T newInstance(Object[] args) throws ReflectiveOperationException {
+		if (constructor == null) {
+			throw constructorFailure;
+		}
+
+		Function<Object[], Object> factory = this.factory;
+		if (factory == null && !compiled && FactoryGenerator.THRESHOLD >= 0 &&
+				builds++ >= FactoryGenerator.THRESHOLD) {
+			factory = compile();
+		}
+		if (factory == null) {
+			return constructor.newInstance(args);
+		}
+		try {
+			return type.cast(factory.apply(args));
+		} catch (Throwable cause) {
+			// Thrown by the constructor, as reflection would report it
+			throw new InvocationTargetException(cause);
+		}
+	}
+
+	/**
+	 * Generate the factory of the class and the writers of its members, once.
+	 * @return The factory, or null if the constructor is left to reflection
+	 */
+	private synchronized Function<Object[], Object> compile() {
+		if (!compiled) {
+			for (Member member : members) {
+				member.compile();
+			}
+			factory = FactoryGenerator.generate(constructor);
+			compiled = true;
+		}
+		return factory;
+	}
+
+	/**
+	 * Indicates whether the class is built by a generated factory.
+	 * @return true once the plan is compiled, if its constructor could be generated
+	 */
+	boolean isGenerated() {
+		return factory != null;
+	}
+
+	/**
+	 * Returns the constructor to call, for error reporting.
+	 * @return The planned constructor, or null if none
+	 */
+	Constructor<T> getConstructor() {
+		return constructor;
+	}
+
+	/**
+	 * Call the @Reconfigured method of an instance, if the class has one.
+	 * @param target The reconfigured instance
+	 * @param keys The changed keys consumed by the instance
+	 * @throws ReflectiveOperationException The method has failed
+	 */
+	void reconfigured(Object target, Set<String> keys) throws ReflectiveOperationException {
+		if (reconfigured != null) {
+			if (reconfigured.getParameterCount() == 0) {
+				reconfigured.invoke(target);
+			} else {
+				reconfigured.invoke(target, keys);
+			}
+		}
+	}
+
+	/**
+	 * Call the @Reset method of an instance, if the class has one.
+	 * @param target The instance returned to its pool
+	 * @throws ReflectiveOperationException The method has failed
+	 */
+	void reset(Object target) throws ReflectiveOperationException {
+		if (reset != null) {
+			reset.invoke(target);
+		}
+	}
+
+	/**
+	 * Returns the setters and fields to inject. For each class of the hierarchy,
+	 *   superclass first, its setters come before its fields.
+	 * @return The members to inject
+	 */
+	Member[] getMembers() {
+		return members;
+	}
+}
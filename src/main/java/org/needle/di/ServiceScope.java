@@ -0,0 +1,138 @@
+package org.needle.di;
+
+import org.needle.di.exceptions.InjectionException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.needle.di.exceptions.InjectionException.RESET_FAILED;
+
+/**
+ * A unit of work, typically a request, in which the instances of pooled
+ *   bindings are borrowed from their pool instead of being built. Closing the
+ *   scope resets all the instances it has borrowed, and returns them to their pool.
+ * Outside of a scope, a pooled binding behaves as a prototype.
+ * A scope is meant to be used by one thread at a time, and the instances it
+ *   returned must not be used once it is closed.
+ * @see Container#openScope()
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public final class ServiceScope implements AutoCloseable {
+
+	/**
+	 * The container of the scope
+	 */
+	private final Container container;
+
+	/**
+	 * The borrowed instances, in borrow order
+	 */
+	private final List<Object> instances = new ArrayList<>();
+
+	/**
+	 * The pool of each borrowed instance
+	 */
+	private final List<InstancePool> pools = new ArrayList<>();
+
+	/**
+	 * Whether the scope is closed
+	 */
+	private boolean closed;
+
+	/**
+	 * Create a scope.
+	 * This method is internal and should not be called directly.
+	 * @param container The container of the scope
+	 * @see Container#openScope()
+	 */
+	ServiceScope(Container container) {
+		this.container = container;
+	}
+
+	/**
+	 * Returns an instance of the given type, according to its binding.
+	 * @param <T> The requested type
+	 * @param type The requested type
+	 * @return The instance
+	 * @throws InjectionException An error has occurred during the instantiation or dependency injection process
+	 * @see Container#get(Class)
+	 */
+	public <T> T get(Class<T> type) throws InjectionException {
+		return builder(type).build();
+	}
+
+	/**
+	 * Returns an instance of the given type, according to its binding with the given name.
+	 * @param <T> The requested type
+	 * @param type The requested type
+	 * @param name The binding name
+	 * @return The instance
+	 * @throws InjectionException If no binding has this type and name, or if an error
+	 *   has occurred during the instantiation or dependency injection process
+	 * @see Container#get(Class, String)
+	 */
+	public <T> T get(Class<T> type, String name) throws InjectionException {
+		return type.cast(builder(type).build(container.getBinding(type, name)));
+	}
+
+	/**
+	 * Returns a builder bound to the container, that borrows in this scope.
+	 * @param type The requested type
+	 * @param <T> The requested type
+	 * @return The builder
+	 */
+	private <T> ServiceBuilder<T> builder(Class<T> type) {
+		if (closed) {
+			throw new IllegalStateException("The scope is closed");
+		}
+		return new ServiceBuilder<>(type, container, this);
+	}
+
+	/**
+	 * Record an instance borrowed from a pool, to return it on close.
+	 * @param pool The pool
+	 * @param instance The borrowed instance
+	 */
+	void borrowed(InstancePool pool, Object instance) {
+		pools.add(pool);
+		instances.add(instance);
+	}
+
+	/**
+	 * Reset the borrowed instances, the last borrowed first, and return them to
+	 *   their pool. An instance whose reset fails is discarded.
+	 * @throws InjectionException If the reset of an instance has failed, once all
+	 *   the other instances are returned.
+	 */
+	@Override
+	public void close() throws InjectionException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		InjectionException failure = null;
+		for (int i = instances.size() - 1; i >= 0; i--) {
+			final Object instance = instances.get(i);
+			try {
+				ServicePlan.of(instance.getClass()).reset(instance);
+				pools.get(i).release(instance);
+			} catch (ReflectiveOperationException cause) {
+				pools.get(i).discard();
+				final InjectionException e = new InjectionException(cause, RESET_FAILED,
+						instance.getClass().getName());
+				if (failure == null) {
+					failure = e;
+				} else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+		instances.clear();
+		pools.clear();
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+}
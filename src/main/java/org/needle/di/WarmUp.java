@@ -0,0 +1,147 @@
+package org.needle.di;
+
+import org.needle.di.exceptions.InjectionException;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The warm-up of a container : builds its root services again and again in a
+ *   daemon thread, so that the JIT compiles their construction paths before the
+ *   container takes traffic.
+ * The iterations run by rounds of a few milliseconds. After each round, the total
+ *   compilation time of the JVM is sampled : once several rounds in a row have
+ *   not compiled anything, the compilation has stabilized and the warm-up stops. When the JVM does not
+ *   monitor its compilation time, the mean build time of the rounds is watched
+ *   instead, until it stops decreasing.
+ * @see Container#warmUp(int, Class...)
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+final class WarmUp implements Runnable {
+
+	/**
+	 * The minimum duration of a round, in nanoseconds : the compilation time is
+	 *   only measured in milliseconds, and compilations run in the background
+	 */
+	static final long ROUND_TIME = TimeUnit.MILLISECONDS.toNanos(20);
+
+	/**
+	 * The number of rounds in a row without compilation after which the
+	 *   compilation has stabilized
+	 */
+	static final int QUIET_ROUNDS = 3;
+
+	/**
+	 * The relative change of the mean build time under which a round is
+	 *   considered quiet, when the compilation time is not monitored
+	 */
+	private static final double TOLERANCE = 0.05;
+
+	/**
+	 * The builders of the root services
+	 */
+	private final List<Builder<?, InjectionException>> roots;
+
+	/**
+	 * The maximum number of iterations
+	 */
+	private final int iterations;
+
+	/**
+	 * The compilation of the JVM, or null if it is not monitored
+	 */
+	private final CompilationMXBean compilation;
+
+	/**
+	 * The future completed with the report
+	 */
+	private final CompletableFuture<WarmUpReport> report = new CompletableFuture<>();
+
+	/**
+	 * Start warming up a container.
+	 * @param roots The builders of the root services
+	 * @param iterations The maximum number of iterations
+	 */
+	WarmUp(List<Builder<?, InjectionException>> roots, int iterations) {
+		this.roots = roots;
+		this.iterations = iterations;
+
+		final CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+		this.compilation = compilation != null && compilation.isCompilationTimeMonitoringSupported() ?
+				compilation : null;
+
+		final Thread thread = new Thread(this, "needle-warm-up");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Returns the future report of the warm-up.
+	 * @return The future, completed with the report, or exceptionally with the
+	 *   InjectionException of a failed build
+	 */
+	CompletableFuture<WarmUpReport> getReport() {
+		return report;
+	}
+
+	@Override
+	public void run() {
+		final long start = System.nanoTime();
+		final long initialCompilation = getCompilationTime();
+
+		long builds = 0;
+		int iteration = 0;
+		int quietRounds = 0;
+		long compilationTime = initialCompilation;
+		long buildTime = 0;
+
+		try {
+			while (iteration < iterations && quietRounds < QUIET_ROUNDS) {
+				final long roundStart = System.nanoTime();
+				long roundTime;
+				int round = 0;
+				do {
+					for (Builder<?, InjectionException> root : roots) {
+						root.build();
+					}
+					round++;
+					roundTime = System.nanoTime() - roundStart;
+				} while (iteration + round < iterations && roundTime < ROUND_TIME);
+				iteration += round;
+				builds += (long) round * roots.size();
+
+				final long previousBuildTime = buildTime;
+				buildTime = roundTime / Math.max(1L, (long) round * roots.size());
+
+				final boolean quiet;
+				if (compilation != null) {
+					final long previousCompilation = compilationTime;
+					compilationTime = getCompilationTime();
+					quiet = compilationTime == previousCompilation;
+				} else {
+					quiet = previousBuildTime > 0 &&
+							buildTime >= previousBuildTime * (1 - TOLERANCE);
+				}
+				quietRounds = quiet ? quietRounds + 1 : 0;
+			}
+		} catch (InjectionException | RuntimeException | Error e) {
+			report.completeExceptionally(e);
+			return;
+		}
+
+		report.complete(new WarmUpReport(roots.size(), iteration, builds, System.nanoTime() - start,
+				compilation != null ? compilationTime - initialCompilation : -1L,
+				buildTime, quietRounds >= QUIET_ROUNDS));
+	}
+
+	/**
+	 * Returns the total compilation time of the JVM.
+	 * @return The compilation time, in milliseconds, or 0 if it is not monitored
+	 */
+	private long getCompilationTime() {
+		return compilation != null ? compilation.getTotalCompilationTime() : 0L;
+	}
+}
@@ -0,0 +1,103 @@
+package org.needle.di;
+
+/**
+ * The outcome of the warm-up of a container : how many builds it took, and
+ *   whether the JIT compilation has stabilized before the iterations ran out.
+ * @see Container#warmUp(int, Class...)
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public final class WarmUpReport {
+
+	private final int services;
+
+	private final int iterations;
+
+	private final long builds;
+
+	private final long elapsedTime;
+
+	private final long compilationTime;
+
+	private final long buildTime;
+
+	private final boolean stabilized;
+
+	WarmUpReport(int services, int iterations, long builds, long elapsedTime,
+			long compilationTime, long buildTime, boolean stabilized) {
+		this.services = services;
+		this.iterations = iterations;
+		this.builds = builds;
+		this.elapsedTime = elapsedTime;
+		this.compilationTime = compilationTime;
+		this.buildTime = buildTime;
+		this.stabilized = stabilized;
+	}
+
+	/**
+	 * Returns the number of root services built at each iteration.
+	 * @return The number of services
+	 */
+	public int getServices() {
+		return services;
+	}
+
+	/**
+	 * Returns the number of iterations run, which is lower than the requested
+	 *   one if the compilation has stabilized before.
+	 * @return The number of iterations
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Returns the number of root services built.
+	 * @return The build count
+	 */
+	public long getBuilds() {
+		return builds;
+	}
+
+	/**
+	 * Returns the duration of the warm-up.
+	 * @return The elapsed time, in nanoseconds
+	 */
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+
+	/**
+	 * Returns the time the JIT compilers of the JVM have spent compiling during
+	 *   the warm-up, in all the threads.
+	 * @return The compilation time, in milliseconds, or -1 if the JVM does not
+	 *   monitor it
+	 */
+	public long getCompilationTime() {
+		return compilationTime;
+	}
+
+	/**
+	 * Returns the mean time of a build during the last round of iterations, to
+	 *   compare with the steady-state latency.
+	 * @return The build time, in nanoseconds
+	 */
+	public long getBuildTime() {
+		return buildTime;
+	}
+
+	/**
+	 * Indicates whether the compilation has stabilized : the last rounds of
+	 *   iterations did not trigger any compilation, or, if the JVM does not
+	 *   monitor it, did not get any faster.
+	 * @return true if the construction paths are compiled
+	 */
+	public boolean isStabilized() {
+		return stabilized;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("WarmUpReport[services=%d, iterations=%d, builds=%d, elapsedTime=%d, compilationTime=%d, buildTime=%d, stabilized=%b]",
+				services, iterations, builds, elapsedTime, compilationTime, buildTime, stabilized);
+	}
+}
@@ -17,4 +17,10 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 @Target({ FIELD, METHOD, CONSTRUCTOR })
 public @interface Inject {
 
+	/**
+	 * Whether the injection of a field or a setter is skipped when its type is
+	 *   neither bound in the container nor a service, instead of failing. The
+	 *   member then keeps its initial value. It has no effect on a constructor.
+	 */
+	boolean optional() default false;
 }
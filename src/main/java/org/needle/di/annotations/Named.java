@@ -0,0 +1,27 @@
+package org.needle.di.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * This annotation is used to mark a field, a setter, a constructor or provider
+ *   argument, as requiring the binding of its type with the given name, such as
+ *   a "primary" and a "replica" binding of the same type.
+ * On a provider method, it names the binding of its return type. It is the
+ *   qualifier of the bindings declared by Binder.named().
+ * @see Qualifier
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Qualifier
+@Retention(RUNTIME)
+@Target({ FIELD, METHOD, PARAMETER })
+public @interface Named {
+
+	/**
+	 * The binding name
+	 */
+	String value();
+}
@@ -0,0 +1,22 @@
+package org.needle.di.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.ANNOTATION_TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * This annotation is used to mark an annotation as a qualifier : on an injection
+ *   point, a qualifier selects the binding of the type qualified by the same
+ *   annotation, instead of the unqualified one. Bindings are qualified by
+ *   Binder.qualifiedBy(), or by the qualifier annotating their provider method.
+ * Two qualifiers with members match when all their members are equal.
+ * @see Named
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Retention(RUNTIME)
+@Target(ANNOTATION_TYPE)
+public @interface Qualifier {
+
+}
@@ -0,0 +1,21 @@
+package org.needle.di.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * This annotation is used to mark the method of a service that a Container calls
+ *   after a configuration change has been re-injected in the @Resolve members of
+ *   the instance.
+ * The method takes either no argument, or a Set of String that receives the
+ *   changed keys consumed by the instance.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface Reconfigured {
+
+}
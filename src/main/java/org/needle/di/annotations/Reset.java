@@ -0,0 +1,21 @@
+package org.needle.di.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * This annotation is used to mark the method of a pooled service that a Container
+ *   calls when an instance is returned to its pool, so that it can clear the state
+ *   left by its last borrower before being reused.
+ * The method takes no argument. Its dependencies and resolved members are kept.
+ * @see org.needle.di.Scope#POOLED
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface Reset {
+
+}
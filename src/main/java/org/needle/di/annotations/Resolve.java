@@ -11,13 +11,28 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
  * This annotation is used to mark a field or a setter method, indicating thus
  *   to the ServiceBuilder to try resolving the member value with a value registered in
  *   its configuration.
+ * A member declared as an Optional receives an empty Optional when the property
+ *   is missing, instead of failing.
  * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
  */
 @Retention(RUNTIME)
 @Target({ FIELD, METHOD })
 public @interface Resolve {
+
+	/**
+	 * The value of defaultValue() meaning that the property has no default value
+	 */
+	String NO_DEFAULT = "\u0000";
+
 	/**
 	 * The key of the property to resolve.
 	 */
 	String value() default "";
+
+	/**
+	 * The value injected when the property is missing from the configuration,
+	 *   converted to the member type : a String, a primitive type or its wrapper,
+	 *   or an enum constant name.
+	 */
+	String defaultValue() default NO_DEFAULT;
 }
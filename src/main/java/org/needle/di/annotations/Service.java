@@ -13,6 +13,9 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
  *   a ServiceBuilder in other instances field, setter or constructor
  *   (themselves @Inject annotated).
  * A service may have dependencies that can be resolved by another ServiceBuilder.
+ * On a method of a module installed in a Container, it marks the method as the
+ *   provider of its return type, which needs not be a service itself : the method
+ *   arguments are injected, and its result is injected wherever the type is required.
  * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
  */
 @Retention(RUNTIME)
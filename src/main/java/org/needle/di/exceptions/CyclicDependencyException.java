@@ -1,6 +1,9 @@
 package org.needle.di.exceptions;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -11,27 +14,72 @@ import java.util.stream.Collectors;
 public class CyclicDependencyException extends InjectionException {
 
 	private static final long serialVersionUID = 1477073793173902135L;
-	
+
+	/**
+	 * The classes of the cycle, in injection order, starting and ending
+	 *   with the class that closed it.
+	 */
+	private final List<Class<?>> cycle;
+
+	/**
+	 * The chain of dependencies, in injection order, written as "A -> B -> A"
+	 *   when the message is formatted.
+	 */
+	private static final class Chain {
+
+		private final Collection<Class<?>> classes;
+
+		private Chain(Collection<Class<?>> classes) {
+			this.classes = classes;
+		}
+
+		@Override
+		public String toString() {
+			return classes.stream()
+					.map(Class::getName)
+					.collect(Collectors.joining(" -> "));
+		}
+	}
+
 	/**
-	 * Returns a string representing the list of all detected and proceeded 
-	 *   dependencies.
-	 * @param dependencies A collection that contains all dependencies representing class objects
-	 * @return The list of already injected dependencies classes name
+	 * Extract the cycle from the dependencies path.
+	 * @param cycle The type class that closed the cycle
+	 * @param dependencies The ordered path of dependencies in construction
+	 * @return The classes from the first occurrence of the cycle class to the end
+	 *   of the path, followed by the cycle class again
 	 */
-	private static String getDependencyList(Collection<Class<?>> dependencies) {
-		return dependencies.stream()
-				.map(Class::getName)
-				.collect(Collectors.joining(", "));
+	private static List<Class<?>> getCycle(Class<?> cycle, Collection<Class<?>> dependencies) {
+		final List<Class<?>> chain = new ArrayList<>();
+		for (Class<?> dependency : dependencies) {
+			if (dependency == cycle || !chain.isEmpty()) {
+				chain.add(dependency);
+			}
+		}
+		chain.add(cycle);
+		return Collections.unmodifiableList(chain);
 	}
 
 	/**
 	 * Constructs a CyclicDependencyException instance.
 	 * @param cycle The type class that closed the cycle 
-	 * @param dependencies The list of already proceeded dependencies classes
+	 * @param dependencies The ordered path of dependencies in construction,
+	 *   from the root instance
 	 */
 	public CyclicDependencyException(Class<?> cycle, Collection<Class<?>> dependencies) {
-		super(String.format(CYCLIC_DEPENDENCIES, 
-				cycle.getName(), getDependencyList(dependencies)));
+		this(cycle, getCycle(cycle, dependencies));
+	}
+
+	private CyclicDependencyException(Class<?> closing, List<Class<?>> cycle) {
+		super(CYCLIC_DEPENDENCIES, closing.getName(), new Chain(cycle));
+		this.cycle = cycle;
 	}
 
+	/**
+	 * Returns the classes of the cycle, in injection order. The first and the
+	 *   last elements are the class that closed the cycle.
+	 * @return The cycle, as an unmodifiable list
+	 */
+	public List<Class<?>> getCycle() {
+		return cycle;
+	}
 }
@@ -1,11 +1,38 @@
 package org.needle.di.exceptions;
 
+import org.needle.di.ReflectionUtils;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Represents a base error occurring during dependency injection process.
+ * The message is formatted from its arguments on the first call to getMessage(),
+ *   so that an exception which is caught and handled, when an optional service is
+ *   probed for instance, costs no formatting.
+ * When the system property needle.exceptions.stackless is true, the injection
+ *   exceptions do not capture any stack trace : the injection points crossed by a
+ *   failure are given by getPath() instead.
  * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
  */
 public class InjectionException extends Exception {
 
+	private static final long serialVersionUID = -2460392536049452316L;
+
+	/**
+	 * The system property that makes the injection exceptions stackless
+	 */
+	public static final String STACKLESS_PROPERTY = "needle.exceptions.stackless";
+
+	/**
+	 * Whether the injection exceptions capture their stack trace
+	 */
+	private static final boolean STACK_TRACE = !Boolean.getBoolean(STACKLESS_PROPERTY);
+
 	/*
 	 * Exception error messages constants
 	 */
@@ -18,24 +45,104 @@ public class InjectionException extends Exception {
 	public final static String NESTED_EXCEPTION_S   = "Unable to create the dependency instance to inject with the method %s.";
 	public final static String NOT_A_SETTER         = "The method %s must be a setter.";
 	public final static String UNRESOLVABLE		    = "The field %s cannot be resolved. No parameter with key %s was found in the configuration.";
+	public final static String NESTED_EXCEPTION_P   = "Unable to create the dependency instance to inject in argument %d of the provider %s.";
+	public final static String PROVIDER_FAILED      = "The provider %s has failed to provide a %s instance.";
+	public final static String INVALID_PROVIDER     = "The provider %s cannot be invoked.";
+	public final static String AMBIGUOUS_BINDINGS   = "Several bindings are declared for %s : %s and %s.";
+	public final static String NOT_AN_IMPLEMENTATION = "Class %s cannot be bound to %s, it is not an implementation of it.";
+	public final static String RECONFIGURATION_FAILED = "Unable to notify the %s instance of a configuration change.";
+	public final static String UNBOUND              = "No binding of %s is qualified by %s.";
+	public final static String INVALID_DEFAULT      = "The default value \"%s\" of %s cannot be converted to %s.";
+	public final static String INVALID_VALUE        = "The value \"%s\" of the property %s cannot be converted to %s.";
+	public final static String SOURCE_UNREADABLE    = "Unable to read the configuration source %s.";
+	public final static String RESET_FAILED         = "Unable to reset the %s instance before returning it to its pool.";
+
+	/**
+	 * The error message format
+	 */
+	private final String format;
+
+	/**
+	 * The arguments of the error message, until it is formatted
+	 */
+	private transient Object[] args;
+
+	/**
+	 * The formatted error message, once computed
+	 */
+	private volatile String message;
 	
 	/**
 	 * Constructs an InjectionException instance.
 	 * @param cause The cause of the injection error
 	 * @param message The error message
-	 * @param args The arguments list for error message
+	 * @param args The arguments list for error message. A Method is described
+	 *   by its signature.
 	 */
 	public InjectionException(Throwable cause, String message,  Object... args) {
-		super(String.format(message, args), cause);
+		super(null, cause, true, STACK_TRACE);
+		this.format = message;
+		this.args = args;
 	}
 
 	/**
 	 * Constructs an InjectionException instance.
 	 * @param message The error message
-	 * @param args The arguments list for error message
+	 * @param args The arguments list for error message. A Method is described
+	 *   by its signature.
 	 */
 	public InjectionException(String message, Object... args) {
-		super(String.format(message, args));
+		this(null, message, args);
+	}
+
+	/**
+	 * Returns the error message, formatted on first call.
+	 * @return The error message
+	 */
+	@Override
+	public String getMessage() {
+		String message = this.message;
+		if (message == null) {
+			synchronized (this) {
+				message = this.message;
+				if (message == null) {
+					final Object[] args = this.args.clone();
+					for (int i = 0; i < args.length; i++) {
+						if (args[i] instanceof Method) {
+							args[i] = ReflectionUtils.describeMethod((Method) args[i]);
+						}
+					}
+					this.message = message = String.format(format, args);
+					this.args = null;
+				}
+			}
+		}
+		return message;
+	}
+
+	/**
+	 * Returns the injection points crossed by the failure, from the one of the
+	 *   instance requested at the top level down to the one that has failed.
+	 * @return The injection points, empty if the failure is not nested
+	 * @see NestedInjectionException#getInjectionPoint()
+	 */
+	public List<String> getPath() {
+		final List<String> path = new ArrayList<>();
+		for (Throwable e = this; e instanceof NestedInjectionException; e = e.getCause()) {
+			path.add(((NestedInjectionException) e).getInjectionPoint());
+		}
+		return Collections.unmodifiableList(path);
+	}
+
+	/**
+	 * Format the message before the serialization, since its arguments may not
+	 *   be serializable.
+	 * @param out The serialization stream
+	 * @throws IOException The serialization has failed
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		getMessage();
+		out.defaultWriteObject();
 	}
 
 }
@@ -2,9 +2,13 @@ package org.needle.di.exceptions;
 
 import org.needle.di.ReflectionUtils;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.stream.Collectors;
 
 /**
  * In case of nested ServiceBuilder calls, when an Exception occurs,
@@ -16,14 +20,30 @@ public class NestedInjectionException extends InjectionException {
 	
 	private static final long serialVersionUID = -479379668503057842L;
 
+	/**
+	 * The description of the injection point, computed on demand
+	 */
+	private transient Object member;
+
+	/**
+	 * The index of the failed argument, or -1 for a setter or a field
+	 */
+	private final int index;
+
+	/**
+	 * The description of the injection point, once computed
+	 */
+	private String injectionPoint;
+
 	/**
 	 * Constructs a NestedInjectionException, from the setter for which the injection failed.
 	 * @param method The method representation class 
 	 * @param nested The source exception
 	 */
 	public NestedInjectionException(Method method, InjectionException nested) {
-		super(String.format(NESTED_EXCEPTION_S, 
-				ReflectionUtils.describeMethod(method)), nested);
+		super(nested, NESTED_EXCEPTION_S, method);
+		this.member = method;
+		this.index = -1;
 	}
 	
 	/**
@@ -32,7 +52,9 @@ public class NestedInjectionException extends InjectionException {
 	 * @param nested The source exception
 	 */
 	public NestedInjectionException(Field field, InjectionException nested) {
-		super(String.format(NESTED_EXCEPTION_F, field.getName()), nested);
+		super(nested, NESTED_EXCEPTION_F, field.getName());
+		this.member = field;
+		this.index = -1;
 	}
 
 	/**
@@ -44,8 +66,61 @@ public class NestedInjectionException extends InjectionException {
 	 */
 	public NestedInjectionException(int index, Constructor<?> constructor,
 			InjectionException nested) {
-		super(String.format(NESTED_EXCEPTION_A, 
-				index, constructor),nested);
+		super(nested, NESTED_EXCEPTION_A, index, constructor);
+		this.member = constructor;
+		this.index = index;
 	}
 
+	/**
+	 * Constructs a NestedInjectionException, from the provider method
+	 *  for which the injection failed.
+	 * @param index The index of the provider's argument for which the injection failed
+	 * @param provider The provider method
+	 * @param nested The source exception
+	 */
+	public NestedInjectionException(int index, Method provider,
+			InjectionException nested) {
+		super(nested, NESTED_EXCEPTION_P, index, provider);
+		this.member = provider;
+		this.index = index;
+	}
+
+	/**
+	 * Returns the injection point for which the injection failed, such as
+	 *   "field engine", "setter setWheel(Wheel) : void", "argument 0 of Car(Engine)"
+	 *   or "argument 0 of provider gearbox(Engine) : Gearbox".
+	 * @return The description of the injection point
+	 */
+	public synchronized String getInjectionPoint() {
+		if (injectionPoint == null) {
+			if (member instanceof Field) {
+				injectionPoint = "field " + ((Field) member).getName();
+			} else if (member instanceof Constructor) {
+				final Constructor<?> constructor = (Constructor<?>) member;
+				injectionPoint = "argument " + index + " of " +
+						constructor.getDeclaringClass().getSimpleName() + "(" +
+						Arrays.stream(constructor.getParameterTypes())
+								.map(Class::getSimpleName)
+								.collect(Collectors.joining(", ")) + ")";
+			} else if (index < 0) {
+				injectionPoint = "setter " + ReflectionUtils.describeMethod((Method) member);
+			} else {
+				injectionPoint = "argument " + index + " of provider " +
+						ReflectionUtils.describeMethod((Method) member);
+			}
+			member = null;
+		}
+		return injectionPoint;
+	}
+
+	/**
+	 * Describe the injection point before the serialization, since the
+	 *   reflected member is not serializable.
+	 * @param out The serialization stream
+	 * @throws IOException The serialization has failed
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		getInjectionPoint();
+		out.defaultWriteObject();
+	}
 }
@@ -0,0 +1,263 @@
+package org.needle.di.processor;
+
+import org.needle.di.annotations.Inject;
+import org.needle.di.annotations.Reconfigured;
+import org.needle.di.annotations.Reset;
+import org.needle.di.annotations.Resolve;
+import org.needle.di.annotations.Service;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Annotation processor generating the GraalVM native-image reflection configuration
+ *   of the compiled services : the reflect-config.json file registers exactly the
+ *   classes, constructors, setters, fields, provider methods and callbacks that a
+ *   ServiceBuilder or a Container accesses by reflection, and nothing else.
+ * The file is written in META-INF/native-image/&lt;path&gt;/reflect-config.json of the
+ *   class output, where the path is given by the needle.nativeImage.path option
+ *   (-Aneedle.nativeImage.path=groupId/artifactId), "needle" by default.
+ * Classes are found from their annotations : @Service classes and module methods, and
+ *   classes declaring @Inject or @Resolve members. An implementation bound in a
+ *   container without any of these annotations must be registered by hand.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public class ReflectConfigProcessor extends AbstractProcessor {
+
+	/**
+	 * The option giving the path of the generated configuration
+	 */
+	public static final String PATH_OPTION = "needle.nativeImage.path";
+
+	/**
+	 * The reflection configuration of a class.
+	 * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+	 */
+	private static final class Entry {
+
+		/**
+		 * The registered methods and constructors, as JSON objects, by signature
+		 */
+		private final Map<String, String> methods = new LinkedHashMap<>();
+
+		/**
+		 * The registered fields, by name, with whether they can be written
+		 */
+		private final Map<String, Boolean> fields = new LinkedHashMap<>();
+	}
+
+	/**
+	 * The classes to register, by binary name
+	 */
+	private final Map<String, Entry> entries = new TreeMap<>();
+
+	/**
+	 * The classes already scanned
+	 */
+	private final Set<TypeElement> scanned = new HashSet<>();
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return new HashSet<>(Arrays.asList(
+				Service.class.getName(), Inject.class.getName(), Resolve.class.getName(),
+				Reconfigured.class.getName(), Reset.class.getName()));
+	}
+
+	@Override
+	public Set<String> getSupportedOptions() {
+		return Collections.singleton(PATH_OPTION);
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getElementsAnnotatedWith(Service.class)) {
+			if (element.getKind() == ElementKind.METHOD) {
+				// Provider method of a module
+				registerMethod((TypeElement) element.getEnclosingElement(), (ExecutableElement) element);
+			} else if (element.getKind() == ElementKind.CLASS) {
+				scan((TypeElement) element);
+			}
+		}
+
+		for (Class<? extends java.lang.annotation.Annotation> annotation : Arrays.asList(Inject.class, Resolve.class, Reconfigured.class, Reset.class)) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				scan((TypeElement) element.getEnclosingElement());
+			}
+		}
+
+		if (roundEnv.processingOver() && !entries.isEmpty()) {
+			write();
+		}
+		return false;
+	}
+
+	/**
+	 * Register the injectable members of a class and of its superclasses.
+	 * @param type The class to scan
+	 */
+	private void scan(TypeElement type) {
+		if (type.getKind() != ElementKind.CLASS || !scanned.add(type)) {
+			return;
+		}
+
+		final Entry entry = entry(type);
+		final boolean instantiable = !type.getModifiers().contains(Modifier.ABSTRACT);
+
+		for (Element member : type.getEnclosedElements()) {
+			final boolean injectable = member.getAnnotation(Inject.class) != null ||
+					member.getAnnotation(Resolve.class) != null;
+
+			if (member.getKind() == ElementKind.CONSTRUCTOR && instantiable) {
+				final ExecutableElement constructor = (ExecutableElement) member;
+				if (injectable || (constructor.getParameters().isEmpty() &&
+						constructor.getModifiers().contains(Modifier.PUBLIC))) {
+					registerMethod(type, constructor);
+				}
+			} else if (member.getKind() == ElementKind.METHOD && injectable) {
+				registerMethod(type, (ExecutableElement) member);
+				registerSetterField(type, member.getSimpleName().toString());
+			} else if (member.getKind() == ElementKind.METHOD &&
+					(member.getAnnotation(Reconfigured.class) != null || member.getAnnotation(Reset.class) != null)) {
+				registerMethod(type, (ExecutableElement) member);
+			} else if (member.getKind() == ElementKind.FIELD && injectable) {
+				entry.fields.put(member.getSimpleName().toString(), true);
+			}
+		}
+
+		final TypeMirror superclass = type.getSuperclass();
+		if (superclass.getKind() == TypeKind.DECLARED) {
+			final TypeElement element = (TypeElement) processingEnv.getTypeUtils().asElement(superclass);
+			if (!element.getQualifiedName().contentEquals(Object.class.getName())) {
+				scan(element);
+			}
+		}
+	}
+
+	/**
+	 * Register the field matching a setter, which is looked up to check the setter,
+	 *   in the class or in the first superclass that declares it.
+	 * @param type The class declaring the setter
+	 * @param setterName The setter name
+	 */
+	private void registerSetterField(TypeElement type, String setterName) {
+		if (!setterName.startsWith("set") || setterName.length() < 4) {
+			return;
+		}
+		final String fieldName = setterName.substring(3, 4).toLowerCase() + setterName.substring(4);
+
+		for (TypeElement current = type; current != null; ) {
+			for (Element member : current.getEnclosedElements()) {
+				if (member.getKind() == ElementKind.FIELD &&
+						member.getSimpleName().contentEquals(fieldName)) {
+					entry(current).fields.putIfAbsent(fieldName, false);
+					return;
+				}
+			}
+			final TypeMirror superclass = current.getSuperclass();
+			current = superclass.getKind() == TypeKind.DECLARED ?
+					(TypeElement) processingEnv.getTypeUtils().asElement(superclass) : null;
+		}
+	}
+
+	/**
+	 * Register a method or a constructor.
+	 * @param type The declaring class
+	 * @param method The method or constructor
+	 */
+	private void registerMethod(TypeElement type, ExecutableElement method) {
+		final String name = method.getKind() == ElementKind.CONSTRUCTOR ?
+				"<init>" : method.getSimpleName().toString();
+		final String parameterTypes = method.getParameters().stream()
+				.map(parameter -> '"' + binaryName(parameter.asType()) + '"')
+				.collect(Collectors.joining(", "));
+
+		entry(type).methods.put(name + "(" + parameterTypes + ")",
+				"{ \"name\": \"" + name + "\", \"parameterTypes\": [" + parameterTypes + "] }");
+	}
+
+	/**
+	 * Returns the entry of a class, creating it if needed.
+	 * @param type The class
+	 * @return The class entry
+	 */
+	private Entry entry(TypeElement type) {
+		return entries.computeIfAbsent(
+				processingEnv.getElementUtils().getBinaryName(type).toString(), name -> new Entry());
+	}
+
+	/**
+	 * Returns the name of a type, as expected in the reflection configuration.
+	 * @param type The type
+	 * @return The binary name of the type erasure
+	 */
+	private String binaryName(TypeMirror type) {
+		final TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+
+		switch (erasure.getKind()) {
+			case DECLARED:
+				return processingEnv.getElementUtils().getBinaryName(
+						(TypeElement) processingEnv.getTypeUtils().asElement(erasure)).toString();
+			case ARRAY:
+				return binaryName(((ArrayType) erasure).getComponentType()) + "[]";
+			default:
+				return erasure.toString();
+		}
+	}
+
+	/**
+	 * Write the reflection configuration file.
+	 */
+	private void write() {
+		final String path = processingEnv.getOptions().getOrDefault(PATH_OPTION, "needle");
+		final StringBuilder json = new StringBuilder("[\n");
+
+		for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+			final Map.Entry<String, Entry> entry = it.next();
+
+			json.append("  {\n    \"name\": \"").append(entry.getKey()).append('"');
+			if (!entry.getValue().methods.isEmpty()) {
+				json.append(",\n    \"methods\": [\n      ")
+						.append(String.join(",\n      ", entry.getValue().methods.values()))
+						.append("\n    ]");
+			}
+			if (!entry.getValue().fields.isEmpty()) {
+				json.append(",\n    \"fields\": [\n      ")
+						.append(entry.getValue().fields.entrySet().stream()
+								.map(field -> "{ \"name\": \"" + field.getKey() + "\"" +
+										(field.getValue() ? ", \"allowWrite\": true }" : " }"))
+								.collect(Collectors.joining(",\n      ")))
+						.append("\n    ]");
+			}
+			json.append("\n  }").append(it.hasNext() ? ",\n" : "\n");
+		}
+		json.append("]\n");
+
+		try {
+			final FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT,
+					"", "META-INF/native-image/" + path + "/reflect-config.json");
+			try (Writer writer = file.openWriter()) {
+				writer.write(json.toString());
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+					"Unable to write the native-image reflection configuration : " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,285 @@
+package org.needle.di;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.needle.di.mocks.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Concurrency stress tests of the container, excluded from the default build.
+ * Run them with the "stress" profile : mvn test -Pstress
+ */
+@Tag("integration")
+public class ContainerStressTest {
+
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final int ITERATIONS = 2_000;
+
+    private static final long TIMEOUT_SECONDS = 60;
+
+    /**
+     * A task run by each thread of a stress run.
+     */
+    @FunctionalInterface
+    private interface Task {
+        void run(int thread) throws Exception;
+    }
+
+    @BeforeEach
+    void reset() {
+        Turbine.reset();
+    }
+
+    /**
+     * Run a task on several threads released together, failing with the
+     *   deadlocked threads if the run does not end in time.
+     * @param threads The number of threads
+     * @param task The task to run on each thread
+     * @return The duration of the run, in nanoseconds
+     * @throws Exception The first exception thrown by a task
+     */
+    private static long stress(int threads, Task task) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CyclicBarrier barrier = new CyclicBarrier(threads + 1);
+        final Future<?>[] futures = new Future<?>[threads];
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                final int thread = i;
+                futures[i] = executor.submit(() -> {
+                    barrier.await();
+                    task.run(thread);
+                    return null;
+                });
+            }
+
+            barrier.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            final long start = System.nanoTime();
+            for (Future<?> future : futures) {
+                try {
+                    future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    final long[] deadlocked = ManagementFactory.getThreadMXBean().findDeadlockedThreads();
+                    fail("Stress run timed out, deadlocked threads : " +
+                            (deadlocked == null ? "none" : Arrays.toString(deadlocked)));
+                }
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Passing (racing threads resolve a single singleton instance)
+     * @see ServiceBuilder#build(Binding)
+     * @throws Exception should not be raised : Turbine is a service
+     */
+    @Test
+    void test_singleton_ok_exactlyOnce() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            final Container container = Container.builder()
+                    .bind(Turbine.class).in(Scope.SINGLETON).done()
+                    .build();
+            final Set<Turbine> instances = ConcurrentHashMap.newKeySet();
+
+            stress(THREADS, thread -> instances.add(container.get(Turbine.class)));
+
+            assertThat(instances.size(), is(1));
+            assertThat(Turbine.getConstructions(), is(round + 1));
+        }
+    }
+
+    /**
+     * Passing (overlapping graphs sharing singletons, multibindings and the graph recorder)
+     * @see Container#get(Class)
+     * @throws Exception should not be raised : every dependency is bound or configured
+     */
+    @Test
+    void test_graphs_ok_overlapping() throws Exception {
+        final Container container = Container.builder()
+                .install(new GarageModule(6))
+                .bind(Repository.class).to(MemoryRepository.class).in(Scope.SINGLETON).done()
+                .contribute(Repository.class).named("memory").to(MemoryRepository.class).in(Scope.SINGLETON).done()
+                .contribute(Repository.class).named("file").to(FileRepository.class).done()
+                .bind(Turbine.class).in(Scope.SINGLETON).done()
+                .configure("engine.power", 150)
+                .recordGraph()
+                .build();
+        final Repository repository = container.get(Repository.class);
+
+        stress(THREADS, thread -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                switch ((thread + i) % 4) {
+                    case 0:
+                        assertThat(container.get(Sedan.class).getGearbox().getEngine().getPower(), is(150));
+                        break;
+                    case 1:
+                        assertThat(container.get(Library.class).getBackup(), is(sameInstance(repository)));
+                        break;
+                    case 2:
+                        assertThat(container.get(Catalog.class).getRepositoriesByName().size(), is(2));
+                        break;
+                    default:
+                        container.get(Turbine.class);
+                }
+            }
+        });
+
+        final ServiceGraph graph = container.getGraph();
+        assertThat(Turbine.getConstructions(), is(1));
+        assertThat(graph.getNode(MemoryRepository.class).getScope(), is(Scope.SINGLETON));
+        assertThat(graph.getNode(Sedan.class).getConstructions(), is((long) THREADS * ITERATIONS / 4));
+    }
+
+    /**
+     * Passing (every build reads a consistent configuration while it is reloaded)
+     * @see Container#reconfigure(Map)
+     * @throws Exception should not be raised : both keys are always configured
+     */
+    @Test
+    void test_reconfigure_ok_noTornReads() throws Exception {
+        final Container container = Container.builder()
+                .reconfigurePrototypes()
+                .configure("calibration.offset", 0)
+                .configure("calibration.scale", 0)
+                .build();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final CountDownLatch readers = new CountDownLatch(THREADS - 1);
+        final Set<Calibration> lastBuilt = ConcurrentHashMap.newKeySet();
+
+        stress(THREADS, thread -> {
+            if (thread == 0) {
+                // The writer reloads both keys at once until the readers are done
+                for (int version = 1; running.get(); version++) {
+                    final Map<String, Object> change = new HashMap<>();
+                    change.put("calibration.offset", version);
+                    change.put("calibration.scale", version);
+                    container.reconfigure(change);
+                }
+                return;
+            }
+            try {
+                Calibration calibration = null;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    calibration = container.get(Calibration.class);
+                    assertThat(calibration.getInitialScale(), is(calibration.getInitialOffset()));
+                }
+                lastBuilt.add(calibration);
+            } finally {
+                readers.countDown();
+                if (readers.getCount() == 0) {
+                    running.set(false);
+                }
+            }
+        });
+
+        // No change made during a build is lost by its instances
+        final Object version = container.getConfiguration().get("calibration.offset");
+        assertThat((Integer) version, is(greaterThan(0)));
+        for (Calibration calibration : lastBuilt) {
+            assertThat(calibration.getOffset(), is(version));
+            assertThat(calibration.getScale(), is(version));
+        }
+    }
+
+    /**
+     * Passing (a pooled instance is never borrowed by two scopes at once)
+     * @see ServiceScope#close()
+     * @throws Exception should not be raised : Frame is a service
+     */
+    @Test
+    void test_pooled_ok_exclusive() throws Exception {
+        final Container container = Container.builder()
+                .bind(Frame.class).pooled(8).done()
+                .build();
+
+        stress(THREADS, thread -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                try (ServiceScope scope = container.openScope()) {
+                    for (int j = 0; j <= i % 3; j++) {
+                        final Frame frame = scope.get(Frame.class);
+                        assertThat(frame.acquire(), is(true));
+                        assertThat(frame.getLength(), is(0));
+                        frame.write((byte) j);
+                    }
+                }
+            }
+        });
+
+        final PoolMetrics metrics = container.getPoolMetrics(Frame.class);
+        assertThat(metrics.getHits() + metrics.getMisses(), is(metrics.getReleases()));
+        assertThat(metrics.getHitRatio(), is(greaterThan(0.5)));
+    }
+
+    /**
+     * Passing (racing threads cross the factory threshold together, every instance
+     *   fully injected before and after the switch)
+     * @see ServiceBuilder#FACTORY_THRESHOLD_PROPERTY
+     * @throws Exception should not be raised : Gateway properties are configured
+     */
+    @Test
+    void test_generated_ok_switch() throws Exception {
+        final Container container = Container.builder()
+                .configure("gateway.name", "edge")
+                .configure("gateway.timeout", 30)
+                .build();
+        final int builds = Math.max(FactoryGenerator.THRESHOLD, 0) / THREADS + ITERATIONS / 10;
+
+        stress(THREADS, thread -> {
+            for (int i = 0; i < builds; i++) {
+                final Gateway gateway = container.get(Gateway.class);
+                assertThat(gateway.getName(), is("edge"));
+                assertThat(gateway.getTimeout(), is(30));
+                assertThat(gateway.getRetries(), is(3));
+            }
+        });
+
+        assertThat(ServicePlan.of(Gateway.class).isGenerated(), is(FactoryGenerator.THRESHOLD >= 0));
+    }
+
+    /**
+     * Passing (throughput of prototype builds, reported by thread count)
+     * @see Container#get(Class)
+     * @throws Exception should not be raised : Car dependencies are configured
+     */
+    @Test
+    void test_throughput_ok() throws Exception {
+        final Container container = Container.builder()
+                .configure("engine.power", 150)
+                .build();
+
+        System.out.println("threads\tbuilds/s");
+        for (int threads = 1; threads <= THREADS; threads *= 2) {
+            final long nanos = stress(threads, thread -> {
+                for (int i = 0; i < ITERATIONS * 10; i++) {
+                    container.get(Car.class);
+                }
+            });
+            final long builds = (long) threads * ITERATIONS * 10;
+            System.out.printf("%d\t%.0f%n", threads, builds * 1e9 / nanos);
+            assertThat(nanos, is(greaterThan(0L)));
+        }
+    }
+}
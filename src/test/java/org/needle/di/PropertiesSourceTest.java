@@ -0,0 +1,131 @@
+package org.needle.di;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PropertiesSourceTest {
+
+    private static final String CONTENT = String.join("\n",
+            "# comment",
+            "! other comment",
+            "",
+            "   engine.power = 150",
+            "name:Needle DI",
+            "blank.separator value with spaces  ",
+            "escaped\\ key=tab\\there",
+            "unicode=\\u00e9t\\u00e9",
+            "multi.line=first, \\",
+            "    second",
+            "empty=",
+            "engine.power=300",
+            "last.line.without.break=end");
+
+    private Path file;
+
+    @BeforeEach
+    void setupThis() throws IOException {
+        file = Files.createTempFile("needle", ".properties");
+        Files.write(file, CONTENT.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @AfterEach
+    void tearThis() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Passing (same values as java.util.Properties)
+     * @see PropertiesSource#get(String)
+     * @throws Exception should not be raised : the file is readable
+     */
+    @Test
+    void test_get_ok() throws Exception {
+        Properties expected = new Properties();
+        expected.load(new StringReader(CONTENT));
+        PropertiesSource source = PropertiesSource.load(file);
+
+        for (String key : expected.stringPropertyNames()) {
+            assertThat(key, source.get(key), is(expected.getProperty(key)));
+        }
+        assertThat(source.toMap().size(), is(expected.size()));
+        assertThat(source.get("engine.power"), is("300"));
+        assertThat(source.contains("missing"), is(false));
+        assertThat(source.get("missing"), is(nullValue()));
+    }
+
+    /**
+     * Passing (values read as loaded, after the file is rewritten or truncated in place)
+     * @see PropertiesSource#load(Path)
+     * @throws Exception should not be raised : the file is readable
+     */
+    @Test
+    void test_get_ok_rewritten() throws Exception {
+        PropertiesSource source = PropertiesSource.load(file);
+        assertThat(source.get("name"), is("Needle DI"));
+
+        Files.write(file, CONTENT.replace("Needle DI", "Other DI!").getBytes(StandardCharsets.ISO_8859_1));
+        assertThat(source.get("multi.line"), is("first, second"));
+        Files.write(file, new byte[0]);
+
+        assertThat(source.get("name"), is("Needle DI"));
+        assertThat(source.get("last.line.without.break"), is("end"));
+        assertThat(source.toMap().size(), is(8));
+        assertThat(PropertiesSource.load(file).getSize(), is(0));
+    }
+
+    /**
+     * Passing (only the looked up values are decoded)
+     * @see PropertiesSource#getMaterialized()
+     * @throws Exception should not be raised : the file is readable
+     */
+    @Test
+    void test_get_ok_lazy() throws Exception {
+        PropertiesSource source = PropertiesSource.load(file);
+
+        assertThat(source.getMaterialized(), is(0));
+        source.get("name");
+        source.get("name");
+        source.contains("unicode");
+
+        assertThat(source.getMaterialized(), is(1));
+    }
+
+    /**
+     * Passing (empty file)
+     * @see PropertiesSource#load(Path)
+     * @throws Exception should not be raised : the file is readable
+     */
+    @Test
+    void test_load_ok_empty() throws Exception {
+        Files.write(file, new byte[0]);
+
+        assertThat(PropertiesSource.load(file).getSize(), is(0));
+    }
+
+    /**
+     * Not passing (malformed or truncated unicode escapes, rejected at load as
+     *   java.util.Properties does)
+     * @see PropertiesSource#load(Path)
+     */
+    @Test
+    void test_load_ko_malformedEscape() throws Exception {
+        for (String content : new String[] { "key=\\u00zz", "key=ab\\u00", "key=ab\\u00\nnext=value", "k\\u12=value" }) {
+            Files.write(file, content.getBytes(StandardCharsets.ISO_8859_1));
+
+            assertThrows(IllegalArgumentException.class, () -> new Properties().load(new StringReader(content)));
+            assertThrows(IllegalArgumentException.class, () -> PropertiesSource.load(file));
+        }
+    }
+}
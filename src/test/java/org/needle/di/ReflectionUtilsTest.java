@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.needle.di.mocks.AnnoA;
 import org.needle.di.mocks.AnnoB;
 import org.needle.di.mocks.Dummy;
+import org.needle.di.mocks.DummyChild;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
@@ -14,6 +15,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.isEmptyString;
 import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ReflectionUtilsTest {
 
@@ -76,6 +78,21 @@ public class ReflectionUtilsTest {
                 is(true));
     }
 
+    /**
+     * Passing (field declared in the superclass)
+     * @see ReflectionUtils#isSetter(Class, Method)
+     * @throws Exception should not be raised : method name are
+     *    hardcoded both in test specs and mocks class
+     */
+    @Test
+    void test_isSetter_ok_inheritedField() throws Exception {
+        assertThat(
+                ReflectionUtils.isSetter(
+                        DummyChild.class,
+                        DummyChild.class.getDeclaredMethod("setFirstName", String.class)),
+                is(true));
+    }
+
     /**
      * Not passing (not a setter method name)
      * @see ReflectionUtils#isSetter(Class, Method)
@@ -151,6 +168,59 @@ public class ReflectionUtilsTest {
                 is(false));
     }
 
+    /**
+     * Passing
+     * @see ReflectionUtils#isOverridden(Method, Class)
+     * @throws Exception should not be raised : method name are
+     *    hardcoded both in test specs and mocks class
+     */
+    @Test
+    void test_isOverridden_ok() throws Exception {
+        assertThat(
+                ReflectionUtils.isOverridden(
+                        Dummy.class.getDeclaredMethod("setFirstName", String.class),
+                        DummyChild.class),
+                is(true));
+    }
+
+    /**
+     * Not passing (overload with other parameter types)
+     * @see ReflectionUtils#isOverridden(Method, Class)
+     * @throws Exception should not be raised : method name are
+     *    hardcoded both in test specs and mocks class
+     */
+    @Test
+    void test_isOverridden_ko_overload() throws Exception {
+        assertThat(
+                ReflectionUtils.isOverridden(
+                        Dummy.class.getDeclaredMethod("setSize", double.class),
+                        DummyChild.class),
+                is(false));
+    }
+
+    /**
+     * Passing (text converted to a wrapper, a primitive type and an enum)
+     * @see ReflectionUtils#parseValue(String, Class)
+     */
+    @Test
+    void test_parseValue_ok() {
+        assertThat(ReflectionUtils.parseValue("42", Integer.class), is(42));
+        assertThat(ReflectionUtils.parseValue("true", boolean.class), is(true));
+        assertThat(ReflectionUtils.parseValue("SINGLETON", Scope.class), is(Scope.SINGLETON));
+        assertThat(ReflectionUtils.parseValue("text", String.class), is("text"));
+    }
+
+    /**
+     * Not passing (text not matching the type)
+     * @see ReflectionUtils#parseValue(String, Class)
+     */
+    @Test
+    void test_parseValue_ko_mismatch() {
+        assertThrows(IllegalArgumentException.class, () -> ReflectionUtils.parseValue("warm", Integer.class));
+        assertThrows(IllegalArgumentException.class, () -> ReflectionUtils.parseValue("yes", Boolean.class));
+        assertThrows(IllegalArgumentException.class, () -> ReflectionUtils.parseValue("x", Dummy.class));
+    }
+
     /**
      * Passing (on constructor)
      * @see ReflectionUtils#hasOneAnnotation(AnnotatedElement, Class[])
@@ -1,6 +1,26 @@
 package org.needle.di;
 
 import org.junit.jupiter.api.*;
+import org.needle.di.exceptions.InjectionException;
+import org.needle.di.mocks.Car;
+import org.needle.di.mocks.Dashboard;
+import org.needle.di.mocks.Engine;
+import org.needle.di.mocks.Locomotive;
+import org.needle.di.mocks.Sedan;
+import org.needle.di.mocks.Thermostat;
+import org.needle.di.mocks.Truck;
+import org.needle.di.mocks.Wheel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 
 public class ServiceBuilderTest {
@@ -25,6 +45,209 @@ public class ServiceBuilderTest {
 
     }
 
+    /**
+     * Passing (constructor, setter and field injection, shared dependency type)
+     * @see ServiceBuilder#build()
+     * @throws Exception should not be raised : Car dependencies are all services
+     */
+    @Test
+    void test_build_ok() throws Exception {
+        Car car = ServiceBuilder.instance(Car.class)
+                .configure().put("engine.power", 90).done()
+                .build();
+
+        assertThat(car.getEngine().getPower(), is(90));
+        assertThat(car.getWheel(), is(notNullValue()));
+        assertThat(car.getSpareWheel(), is(not(sameInstance(car.getWheel()))));
+    }
+
+    /**
+     * Passing
+     * @see ServiceBuilder#buildMany(int)
+     * @throws Exception should not be raised : Car dependencies are all services
+     */
+    @Test
+    void test_buildMany_ok() throws Exception {
+        List<Car> cars = ServiceBuilder.instance(Car.class)
+                .configure().put("engine.power", 110).done()
+                .buildMany(50);
+
+        assertThat(cars, hasSize(50));
+        assertThat(cars.get(0), is(not(sameInstance(cars.get(1)))));
+        assertThat(cars.get(49).getEngine().getPower(), is(110));
+    }
+
+    /**
+     * Passing (caller-supplied array)
+     * @see ServiceBuilder#buildMany(Object[])
+     * @throws Exception should not be raised : Wheel has no dependency
+     */
+    @Test
+    void test_buildMany_ok_array() throws Exception {
+        Wheel[] wheels = new Wheel[4];
+
+        assertThat(ServiceBuilder.instance(Wheel.class).buildMany(wheels), is(sameInstance(wheels)));
+        assertThat(Arrays.asList(wheels), not(hasItem(nullValue())));
+    }
+
+    /**
+     * Passing
+     * @see ServiceBuilder#buildAll(java.util.Collection, Map)
+     * @throws Exception should not be raised : all classes are services
+     */
+    @Test
+    void test_buildAll_ok() throws Exception {
+        Map<Class<?>, Object> instances = ServiceBuilder.buildAll(
+                Arrays.asList(Car.class, Engine.class, Wheel.class),
+                Collections.singletonMap("engine.power", 70));
+
+        assertThat(instances.keySet(), hasItems(Car.class, Engine.class, Wheel.class));
+        assertThat(((Engine) instances.get(Engine.class)).getPower(), is(70));
+    }
+
+    /**
+     * Passing (members inherited from an abstract class, overridden setter injected once)
+     * @see ServiceBuilder#build()
+     * @throws Exception should not be raised : Truck dependencies are all services
+     */
+    @Test
+    void test_build_ok_hierarchy() throws Exception {
+        Truck truck = ServiceBuilder.instance(Truck.class)
+                .configure().put("vehicle.name", "truck").put("engine.power", 300).done()
+                .build();
+
+        assertThat(truck.getEngine(), is(notNullValue()));
+        assertThat(truck.getName(), is("truck"));
+        assertThat(truck.getTrailerWheel(), is(notNullValue()));
+        assertThat(truck.getWheel(), is(notNullValue()));
+        assertThat(truck.getWheelInjections(), is(1));
+        assertThat(truck.isEngineInjectedFirst(), is(true));
+    }
+
+    /**
+     * Passing (past the threshold, built by the generated factory and writers,
+     *   private inherited field included)
+     * @see ServiceBuilder#FACTORY_THRESHOLD_PROPERTY
+     * @throws Exception should not be raised : Truck dependencies are all services
+     */
+    @Test
+    void test_build_ok_generated() throws Exception {
+        Assumptions.assumeTrue(FactoryGenerator.THRESHOLD >= 0);
+        List<Truck> trucks = ServiceBuilder.instance(Truck.class)
+                .configure().put("vehicle.name", "truck").put("engine.power", 300).done()
+                .buildMany(FactoryGenerator.THRESHOLD + 2);
+
+        assertThat(ServicePlan.of(Truck.class).isGenerated(), is(true));
+        Truck truck = trucks.get(trucks.size() - 1);
+        assertThat(truck.getName(), is("truck"));
+        assertThat(truck.getEngine().getPower(), is(300));
+        assertThat(truck.getTrailerWheel(), is(notNullValue()));
+        assertThat(truck.getWheelInjections(), is(1));
+        assertThat(truck.isEngineInjectedFirst(), is(true));
+    }
+
+    /**
+     * Passing (instances built by reflection, then by the generated factory and
+     *   writers, identical ; primitive members left to reflection)
+     * @see ServiceBuilder#FACTORY_THRESHOLD_PROPERTY
+     * @throws Exception should not be raised : Locomotive dependencies are all configured
+     */
+    @Test
+    void test_build_ok_generatedSame() throws Exception {
+        boolean generating = FactoryGenerator.THRESHOLD >= 0;
+        List<Locomotive> locomotives = ServiceBuilder.instance(Locomotive.class)
+                .configure()
+                    .put("vehicle.name", "loco").put("engine.power", 900)
+                    .put("locomotive.speed", "120").put("locomotive.label", "express")
+                .done()
+                .buildMany(Math.max(FactoryGenerator.THRESHOLD, 0) + 2);
+
+        ServicePlan<Locomotive> plan = ServicePlan.of(Locomotive.class);
+        assertThat(plan.isGenerated(), is(generating));
+        for (ServicePlan.Member member : plan.getMembers()) {
+            assertThat(member.getInjectionPoint(), member.isGenerated(), is(generating && !member.type.isPrimitive()));
+        }
+
+        List<Object> first = describe(locomotives.get(0));
+        assertThat(first, contains((Object) "loco", 900, true, 1, true, 12, 120L, "express", 1));
+        for (Locomotive locomotive : locomotives) {
+            assertThat(describe(locomotive), is(first));
+        }
+    }
+
+    /**
+     * Describe the state of a Locomotive, to compare instances.
+     * @param locomotive The instance
+     * @return The values of its members
+     */
+    private static List<Object> describe(Locomotive locomotive) {
+        return Arrays.asList(locomotive.getName(), locomotive.getEngine().getPower(),
+                locomotive.getWheel() != null, locomotive.getWheelInjections(),
+                locomotive.getFrontWheel() != null, locomotive.getCars(), locomotive.getSpeed(),
+                locomotive.getLabel(), locomotive.getLabelInjections());
+    }
+
+    /**
+     * Passing (available and missing services or properties probed without exception)
+     * @see ServiceBuilder#tryBuild()
+     */
+    @Test
+    void test_tryBuild_ok() {
+        assertThat(ServiceBuilder.instance(Wheel.class).tryBuild().isPresent(), is(true));
+        assertThat(ServiceBuilder.instance(Sedan.class).tryBuild().isPresent(), is(false));
+        assertThat(ServiceBuilder.instance(Car.class).tryBuild().isPresent(), is(false));
+        assertThat(ServiceBuilder.instance(Car.class)
+                .configure().put("engine.power", 90).done()
+                .tryBuild().isPresent(), is(true));
+        assertThat(ServiceBuilder.instance(Thermostat.class).tryBuild().isPresent(), is(false));
+    }
+
+    /**
+     * Passing (missing optional services skipped, missing properties defaulted)
+     * @see ServiceBuilder#build()
+     * @throws Exception should not be raised : all missing members are optional
+     */
+    @Test
+    void test_build_ok_optional() throws Exception {
+        Dashboard dashboard = ServiceBuilder.instance(Dashboard.class).build();
+
+        assertThat(dashboard.getRepository().isPresent(), is(false));
+        assertThat(dashboard.getBackup(), is(nullValue()));
+        assertThat(dashboard.getWheel(), is(notNullValue()));
+        assertThat(dashboard.getGearbox().isPresent(), is(false));
+        assertThat(dashboard.getTheme(), is("dark"));
+        assertThat(dashboard.getRefresh(), is(30));
+        assertThat(dashboard.getTitle().isPresent(), is(false));
+    }
+
+    /**
+     * Passing (configured properties override the defaults)
+     * @see ServiceBuilder#build()
+     * @throws Exception should not be raised : all keys are configured
+     */
+    @Test
+    void test_build_ok_optionalConfigured() throws Exception {
+        Dashboard dashboard = ServiceBuilder.instance(Dashboard.class)
+                .configure().put("dashboard.theme", "light").put("dashboard.title", "Fleet").done()
+                .build();
+
+        assertThat(dashboard.getTheme(), is("light"));
+        assertThat(dashboard.getRefresh(), is(30));
+        assertThat(dashboard.getTitle().get(), is("Fleet"));
+    }
+
+    /**
+     * Not passing (default value not convertible to the member type)
+     * @see ServiceBuilder#build()
+     */
+    @Test
+    void test_build_ko_invalidDefault() {
+        InjectionException e = assertThrows(InjectionException.class,
+                () -> ServiceBuilder.instance(Thermostat.class).build());
+
+        assertThat(e.getCause().getMessage(), containsString("warm"));
+    }
+
     @AfterEach
     void tearThis() {
 
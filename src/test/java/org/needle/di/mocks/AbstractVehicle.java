@@ -0,0 +1,43 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Inject;
+import org.needle.di.annotations.Resolve;
+
+/**
+ * Mock abstract base class declaring injectable members.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public abstract class AbstractVehicle {
+
+    @Inject
+    protected Engine engine;
+
+    @Resolve("vehicle.name")
+    private String name;
+
+    protected Wheel wheel;
+
+    protected int wheelInjections;
+
+    @Inject
+    public void setWheel(Wheel wheel) {
+        this.wheel = wheel;
+        this.wheelInjections++;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Wheel getWheel() {
+        return wheel;
+    }
+
+    public int getWheelInjections() {
+        return wheelInjections;
+    }
+}
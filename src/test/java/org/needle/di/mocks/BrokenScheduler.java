@@ -0,0 +1,27 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Inject;
+
+/**
+ * Mock implementation of Scheduler, injected with its Worker, then with a
+ *   provided type.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public class BrokenScheduler implements Scheduler {
+
+    @Inject
+    private Worker worker;
+
+    @Inject
+    private Gearbox gearbox;
+
+    @Override
+    public Worker getWorker() {
+        return worker;
+    }
+
+    @Override
+    public long schedule(String task, long delay, int priority) {
+        return gearbox.getGears();
+    }
+}
@@ -0,0 +1,53 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Resolve;
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock service resolving two configuration properties that are always
+ *   changed together, keeping the values of its first injection.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Calibration {
+
+    private Integer offset;
+
+    private Integer scale;
+
+    private Integer initialOffset;
+
+    private Integer initialScale;
+
+    @Resolve("calibration.offset")
+    public void setOffset(Integer offset) {
+        this.offset = offset;
+        if (initialOffset == null) {
+            initialOffset = offset;
+        }
+    }
+
+    @Resolve("calibration.scale")
+    public void setScale(Integer scale) {
+        this.scale = scale;
+        if (initialScale == null) {
+            initialScale = scale;
+        }
+    }
+
+    public Integer getOffset() {
+        return offset;
+    }
+
+    public Integer getScale() {
+        return scale;
+    }
+
+    public Integer getInitialOffset() {
+        return initialOffset;
+    }
+
+    public Integer getInitialScale() {
+        return initialScale;
+    }
+}
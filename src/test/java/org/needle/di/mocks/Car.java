@@ -0,0 +1,41 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Inject;
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock service injected by constructor, setter and field.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Car {
+
+    private final Engine engine;
+
+    private Wheel wheel;
+
+    @Inject
+    private Wheel spareWheel;
+
+    @Inject
+    public Car(Engine engine) {
+        this.engine = engine;
+    }
+
+    @Inject
+    public void setWheel(Wheel wheel) {
+        this.wheel = wheel;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public Wheel getWheel() {
+        return wheel;
+    }
+
+    public Wheel getSpareWheel() {
+        return spareWheel;
+    }
+}
@@ -0,0 +1,45 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Inject;
+import org.needle.di.annotations.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mock service injecting all the contributions to Repository.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Catalog {
+
+    private final List<Repository> repositories;
+
+    @Inject
+    private Set<Repository> repositorySet;
+
+    private Map<String, Repository> repositoriesByName;
+
+    @Inject
+    public Catalog(List<Repository> repositories) {
+        this.repositories = repositories;
+    }
+
+    @Inject
+    public void setRepositoriesByName(Map<String, Repository> repositoriesByName) {
+        this.repositoriesByName = repositoriesByName;
+    }
+
+    public List<Repository> getRepositories() {
+        return repositories;
+    }
+
+    public Set<Repository> getRepositorySet() {
+        return repositorySet;
+    }
+
+    public Map<String, Repository> getRepositoriesByName() {
+        return repositoriesByName;
+    }
+}
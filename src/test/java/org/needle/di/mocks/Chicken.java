@@ -0,0 +1,15 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Inject;
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock service depending on Egg, which depends on it in return.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Chicken {
+
+    @Inject
+    private Egg egg;
+}
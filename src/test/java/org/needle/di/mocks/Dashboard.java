@@ -0,0 +1,72 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Inject;
+import org.needle.di.annotations.Resolve;
+import org.needle.di.annotations.Service;
+
+import java.util.Optional;
+
+/**
+ * Mock service with optional dependencies and default-valued properties.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Dashboard {
+
+    private final Optional<Repository> repository;
+
+    @Inject(optional = true)
+    private Repository backup;
+
+    @Inject(optional = true)
+    private Wheel wheel;
+
+    @Inject
+    private Optional<Gearbox> gearbox;
+
+    @Resolve(value = "dashboard.theme", defaultValue = "dark")
+    private String theme;
+
+    @Resolve(value = "dashboard.refresh", defaultValue = "30")
+    private Integer refresh;
+
+    private Optional<String> title;
+
+    @Inject
+    public Dashboard(Optional<Repository> repository) {
+        this.repository = repository;
+    }
+
+    @Resolve("dashboard.title")
+    public void setTitle(Optional<String> title) {
+        this.title = title;
+    }
+
+    public Optional<Repository> getRepository() {
+        return repository;
+    }
+
+    public Repository getBackup() {
+        return backup;
+    }
+
+    public Wheel getWheel() {
+        return wheel;
+    }
+
+    public Optional<Gearbox> getGearbox() {
+        return gearbox;
+    }
+
+    public String getTheme() {
+        return theme;
+    }
+
+    public Integer getRefresh() {
+        return refresh;
+    }
+
+    public Optional<String> getTitle() {
+        return title;
+    }
+}
@@ -0,0 +1,32 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Reconfigured;
+import org.needle.di.annotations.Resolve;
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock service consuming a configuration property, running a listener when
+ *   it is notified of its change.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Dispatcher {
+
+    @Resolve("dispatcher.mode")
+    private String mode;
+
+    private Runnable listener = () -> { };
+
+    @Reconfigured
+    void onChange() {
+        listener.run();
+    }
+
+    public void setListener(Runnable listener) {
+        this.listener = listener;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+}
@@ -0,0 +1,16 @@
+package org.needle.di.mocks;
+
+/**
+ * Dummy subclass overriding some Dummy methods, for testing ReflectionUtils
+ * utility class' functions.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public class DummyChild extends Dummy {
+
+    @Override
+    public void setFirstName(String firstName) {
+        super.setFirstName(firstName);
+    }
+
+    public void setSize(float size) {}
+}
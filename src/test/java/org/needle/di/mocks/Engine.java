@@ -0,0 +1,19 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Resolve;
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock service resolving a configuration property in a field.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Engine {
+
+    @Resolve("engine.power")
+    private Integer power;
+
+    public Integer getPower() {
+        return power;
+    }
+}
@@ -0,0 +1,52 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Reconfigured;
+import org.needle.di.annotations.Resolve;
+import org.needle.di.annotations.Service;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Mock service consuming configuration properties, notified of their changes.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class FeatureToggle {
+
+    @Resolve("feature.enabled")
+    private Boolean enabled;
+
+    private String label;
+
+    private int labelInjections;
+
+    private final Set<String> changedKeys = new HashSet<>();
+
+    @Resolve("feature.label")
+    public void setLabel(String label) {
+        this.label = label;
+        this.labelInjections++;
+    }
+
+    @Reconfigured
+    void onChange(Set<String> keys) {
+        changedKeys.addAll(keys);
+    }
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getLabelInjections() {
+        return labelInjections;
+    }
+
+    public Set<String> getChangedKeys() {
+        return changedKeys;
+    }
+}
@@ -0,0 +1,13 @@
+package org.needle.di.mocks;
+
+/**
+ * Mock implementation of Repository.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public class FileRepository implements Repository {
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+}
@@ -0,0 +1,49 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Reset;
+import org.needle.di.annotations.Service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mock service holding a large buffer, recycled in a pool.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Frame {
+
+    private final byte[] buffer = new byte[64 * 1024];
+
+    private final AtomicBoolean borrowed = new AtomicBoolean();
+
+    private int length;
+
+    private int resets;
+
+    /**
+     * Mark the frame as used by the caller.
+     * @return false if the frame is already used by another caller
+     */
+    public boolean acquire() {
+        return borrowed.compareAndSet(false, true);
+    }
+
+    public void write(byte value) {
+        buffer[length++] = value;
+    }
+
+    @Reset
+    void clear() {
+        length = 0;
+        resets++;
+        borrowed.set(false);
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getResets() {
+        return resets;
+    }
+}
@@ -0,0 +1,28 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock module providing the Gearbox type.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public class GarageModule {
+
+    private final int gears;
+
+    private int provisions;
+
+    public GarageModule(int gears) {
+        this.gears = gears;
+    }
+
+    @Service
+    Gearbox gearbox(Engine engine) {
+        provisions++;
+        return new Gearbox(engine, gears);
+    }
+
+    public int getProvisions() {
+        return provisions;
+    }
+}
@@ -0,0 +1,33 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Resolve;
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock service resolving configuration properties in primitive fields.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Gateway {
+
+    @Resolve("gateway.name")
+    private String name;
+
+    @Resolve("gateway.timeout")
+    private int timeout;
+
+    @Resolve(value = "gateway.retries", defaultValue = "3")
+    private int retries;
+
+    public String getName() {
+        return name;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+}
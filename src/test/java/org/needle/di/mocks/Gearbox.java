@@ -0,0 +1,25 @@
+package org.needle.di.mocks;
+
+/**
+ * Mock class which is not a service, standing for a third-party type.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public class Gearbox {
+
+    private final Engine engine;
+
+    private final int gears;
+
+    public Gearbox(Engine engine, int gears) {
+        this.engine = engine;
+        this.gears = gears;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public int getGears() {
+        return gears;
+    }
+}
@@ -0,0 +1,30 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Inject;
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock service depending twice on the Repository interface.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Library {
+
+    private final Repository repository;
+
+    @Inject
+    private Repository backup;
+
+    @Inject
+    public Library(Repository repository) {
+        this.repository = repository;
+    }
+
+    public Repository getRepository() {
+        return repository;
+    }
+
+    public Repository getBackup() {
+        return backup;
+    }
+}
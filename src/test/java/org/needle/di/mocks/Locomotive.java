@@ -0,0 +1,57 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Inject;
+import org.needle.di.annotations.Resolve;
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock service injected through a constructor, a setter, inherited members
+ *   and primitive fields.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Locomotive extends AbstractVehicle {
+
+    private final Wheel frontWheel;
+
+    @Resolve(value = "locomotive.cars", defaultValue = "12")
+    private int cars;
+
+    @Resolve("locomotive.speed")
+    private long speed;
+
+    private String label;
+
+    private int labelInjections;
+
+    @Inject
+    public Locomotive(Wheel frontWheel) {
+        this.frontWheel = frontWheel;
+    }
+
+    @Resolve("locomotive.label")
+    public void setLabel(String label) {
+        this.label = label;
+        this.labelInjections++;
+    }
+
+    public Wheel getFrontWheel() {
+        return frontWheel;
+    }
+
+    public int getCars() {
+        return cars;
+    }
+
+    public long getSpeed() {
+        return speed;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getLabelInjections() {
+        return labelInjections;
+    }
+}
@@ -0,0 +1,49 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Inject;
+import org.needle.di.annotations.Named;
+import org.needle.di.annotations.Service;
+
+import java.util.Optional;
+
+/**
+ * Mock service injected with several qualified bindings of Repository.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Mirror {
+
+    private final Repository replica;
+
+    @Inject
+    @Named("file")
+    private Repository primary;
+
+    @Inject
+    private Repository fallback;
+
+    @Inject
+    @Named("archive")
+    private Optional<Repository> archive;
+
+    @Inject
+    public Mirror(@Replica Repository replica) {
+        this.replica = replica;
+    }
+
+    public Repository getReplica() {
+        return replica;
+    }
+
+    public Repository getPrimary() {
+        return primary;
+    }
+
+    public Repository getFallback() {
+        return fallback;
+    }
+
+    public Optional<Repository> getArchive() {
+        return archive;
+    }
+}
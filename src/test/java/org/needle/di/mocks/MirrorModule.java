@@ -0,0 +1,17 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Named;
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock module providing a qualified Repository, from another qualified one.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public class MirrorModule {
+
+    @Service
+    @Replica
+    Repository replica(@Named("file") Repository primary) {
+        return () -> "replica of " + primary.getName();
+    }
+}
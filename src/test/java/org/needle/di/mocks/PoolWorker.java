@@ -0,0 +1,23 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Inject;
+
+/**
+ * Mock implementation of Worker, injected by constructor with the Scheduler
+ *   that depends on it.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public class PoolWorker implements Worker {
+
+    private final Scheduler scheduler;
+
+    @Inject
+    public PoolWorker(Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+}
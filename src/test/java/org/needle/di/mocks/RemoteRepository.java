@@ -0,0 +1,36 @@
+package org.needle.di.mocks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mock implementation of Repository, all of whose instances are equal,
+ *   counting its constructions.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public class RemoteRepository implements Repository {
+
+    private static final AtomicInteger CONSTRUCTIONS = new AtomicInteger();
+
+    public RemoteRepository() {
+        CONSTRUCTIONS.incrementAndGet();
+    }
+
+    @Override
+    public String getName() {
+        return "remote";
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof RemoteRepository;
+    }
+
+    @Override
+    public int hashCode() {
+        return RemoteRepository.class.hashCode();
+    }
+
+    public static int getConstructions() {
+        return CONSTRUCTIONS.get();
+    }
+}
@@ -0,0 +1,19 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Inject;
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock service, bound as a singleton, holding a pooled Frame.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Renderer {
+
+    @Inject
+    private Frame frame;
+
+    public Frame getFrame() {
+        return frame;
+    }
+}
@@ -0,0 +1,20 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Qualifier;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Mock qualifier, selecting the replica binding of a type.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Qualifier
+@Retention(RUNTIME)
+@Target({ FIELD, METHOD, PARAMETER })
+public @interface Replica {
+
+}
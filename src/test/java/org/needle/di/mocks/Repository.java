@@ -0,0 +1,10 @@
+package org.needle.di.mocks;
+
+/**
+ * Mock interface, bound to its implementations in a container.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public interface Repository {
+
+    String getName();
+}
@@ -0,0 +1,17 @@
+package org.needle.di.mocks;
+
+/**
+ * Mock interface, implemented by a service that depends on a Worker, which
+ *   depends on it in return.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public interface Scheduler {
+
+    Worker getWorker();
+
+    long schedule(String task, long delay, int priority);
+
+    default String getName() {
+        return "scheduler";
+    }
+}
@@ -0,0 +1,19 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Inject;
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock service depending on a provided type.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Sedan {
+
+    @Inject
+    private Gearbox gearbox;
+
+    public Gearbox getGearbox() {
+        return gearbox;
+    }
+}
@@ -0,0 +1,28 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Inject;
+
+/**
+ * Mock implementation of Scheduler, injected with its Worker.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public class TaskScheduler implements Scheduler {
+
+    @Inject
+    private Worker worker;
+
+    @Override
+    public Worker getWorker() {
+        return worker;
+    }
+
+    @Override
+    public long schedule(String task, long delay, int priority) {
+        return task.length() + delay * priority;
+    }
+
+    @Override
+    public String getName() {
+        return "tasks";
+    }
+}
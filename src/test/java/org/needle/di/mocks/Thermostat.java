@@ -0,0 +1,19 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Resolve;
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock service whose default value does not match the member type.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Thermostat {
+
+    @Resolve(value = "thermostat.target", defaultValue = "warm")
+    private Integer target;
+
+    public Integer getTarget() {
+        return target;
+    }
+}
@@ -0,0 +1,32 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Inject;
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock service inheriting injectable members and overriding an injectable setter.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Truck extends AbstractVehicle {
+
+    @Inject
+    private Wheel trailerWheel;
+
+    private boolean engineInjectedFirst;
+
+    @Inject
+    @Override
+    public void setWheel(Wheel wheel) {
+        super.setWheel(wheel);
+        this.engineInjectedFirst = engine != null;
+    }
+
+    public Wheel getTrailerWheel() {
+        return trailerWheel;
+    }
+
+    public boolean isEngineInjectedFirst() {
+        return engineInjectedFirst;
+    }
+}
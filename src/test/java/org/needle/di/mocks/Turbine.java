@@ -0,0 +1,29 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mock service slow to construct, counting its constructions.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Turbine {
+
+    private static final AtomicInteger CONSTRUCTIONS = new AtomicInteger();
+
+    public Turbine() throws InterruptedException {
+        CONSTRUCTIONS.incrementAndGet();
+        // Widen the window in which other threads may race the construction
+        Thread.sleep(5);
+    }
+
+    public static int getConstructions() {
+        return CONSTRUCTIONS.get();
+    }
+
+    public static void reset() {
+        CONSTRUCTIONS.set(0);
+    }
+}
@@ -0,0 +1,11 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock service without any dependency.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Wheel {
+}
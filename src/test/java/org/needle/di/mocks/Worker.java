@@ -0,0 +1,10 @@
+package org.needle.di.mocks;
+
+/**
+ * Mock interface, implemented by a service that depends on a Scheduler.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+public interface Worker {
+
+    Scheduler getScheduler();
+}
@@ -0,0 +1,26 @@
+package org.needle.di.mocks;
+
+import org.needle.di.annotations.Inject;
+import org.needle.di.annotations.Service;
+
+/**
+ * Mock service depending on an Engine, then on a provided type.
+ * @author fabien33700 <fabien DOT lehouedec AT gmail DOT com>
+ */
+@Service
+public class Workshop {
+
+    @Inject
+    private Engine engine;
+
+    @Inject
+    private Gearbox gearbox;
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public Gearbox getGearbox() {
+        return gearbox;
+    }
+}
@@ -0,0 +1,68 @@
+package org.needle.di.processor;
+
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ReflectConfigProcessorTest {
+
+    private static final String SOURCE =
+            "package sample;\n" +
+            "import org.needle.di.annotations.*;\n" +
+            "abstract class Base {\n" +
+            "    @Inject protected Dependency dependency;\n" +
+            "    public void helper() {}\n" +
+            "}\n" +
+            "@Service class Dependency {}\n" +
+            "@Service public class Sample extends Base {\n" +
+            "    private String name;\n" +
+            "    private int unrelated;\n" +
+            "    @Inject public Sample(Dependency dependency) {}\n" +
+            "    public Sample(int i, String s) {}\n" +
+            "    @Resolve(\"sample.name\") public void setName(String name) { this.name = name; }\n" +
+            "    public void unrelated() {}\n" +
+            "}\n";
+
+    /**
+     * Passing (only injectable members are registered, superclass included)
+     * @see ReflectConfigProcessor
+     * @throws Exception should not be raised : the sample source compiles
+     */
+    @Test
+    void test_process_ok() throws Exception {
+        Path dir = Files.createTempDirectory("needle-processor");
+        Path source = Files.createDirectories(dir.resolve("sample")).resolve("Sample.java");
+        Files.write(source, SOURCE.getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int status = compiler.run(null, null, null, Arrays.asList(
+                "-classpath", System.getProperty("java.class.path"),
+                "-processor", ReflectConfigProcessor.class.getName(),
+                "-A" + ReflectConfigProcessor.PATH_OPTION + "=sample/app",
+                "-d", dir.toString(), source.toString()).toArray(new String[0]));
+        assertThat(status, is(0));
+
+        File config = dir.resolve("META-INF/native-image/sample/app/reflect-config.json").toFile();
+        String json = new String(Files.readAllBytes(config.toPath()), StandardCharsets.UTF_8);
+
+        assertThat(json, containsString("\"name\": \"sample.Base\""));
+        assertThat(json, containsString("{ \"name\": \"dependency\", \"allowWrite\": true }"));
+        assertThat(json, containsString("{ \"name\": \"<init>\", \"parameterTypes\": [\"sample.Dependency\"] }"));
+        assertThat(json, containsString("{ \"name\": \"setName\", \"parameterTypes\": [\"java.lang.String\"] }"));
+        assertThat(json, containsString("{ \"name\": \"name\" }"));
+        assertThat(json, not(containsString("unrelated")));
+        assertThat(json, not(containsString("helper")));
+        assertThat(json, not(containsString("\"int\"")));
+    }
+}